@@ -0,0 +1,84 @@
+package com.backbone.core.benchmark;
+
+import com.backbone.core.CoreServiceApplication;
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.Review;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.Link;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared setup of benchmarks.
+ *
+ * Application is started w/o web server, on its own in-memory db (schema.sql, 100 products),
+ * w/o sql and info logs, so benchmarks measure the service, not the console.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties such as "product.snapshot.enabled=true"
+     */
+    static ConfigurableApplicationContext start(String db, String... properties) {
+        List<String> args = new ArrayList<>(List.of("--spring.datasource.url=jdbc:h2:mem:" + db,
+                                                    "--spring.jpa.show-sql=false",
+                                                    "--logging.level.root=warn"));
+
+        // as args, so they override application.yaml
+        for (String property : properties)
+            args.add("--" + property);
+
+        return new SpringApplicationBuilder(CoreServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Product as it is returned by /product/{id}, w/ reviews, plus links
+     */
+    static Product product(int id, int reviews) {
+        Product product = new Product();
+
+        product.setId(id);
+        product.setCategory("Book");
+        product.setTitle("The Art of Computer Programming, Volume 1");
+        product.setSubTitle("Fundamental Algorithms, 3rd edition");
+        product.setBrand("Addison-Wesley");
+        product.setRating(5);
+        product.setShortDescription("The bible of all fundamental algorithms and the work that taught many of " +
+                                    "today's software developers most of what they know about computer programming.");
+        product.setDescription("This first volume in the series begins with basic programming concepts and " +
+                               "techniques, then focuses more particularly on information structures, the " +
+                               "representation of information inside a computer, the structural relationships " +
+                               "between data elements and how to deal with them efficiently.");
+        product.setVersion(3);
+
+        List<Review> list = new ArrayList<>(reviews);
+
+        for (int i = 1; i <= reviews; i++) {
+            Review review = new Review();
+            review.setId(id * 10 + i);
+            review.setProductId(id);
+            review.setUserName("user" + i);
+            review.setTitle("review " + i);
+            review.setRating(1 + i % 5);
+            review.setVerifiedPurchase(i % 2 == 0);
+            review.setDescription("Worth every page, though it takes a while to get through the exercises.");
+            list.add(review);
+        }
+
+        product.setReviews(list);
+
+        product.add(Link.of("http://localhost:8083/product/" + id));
+        product.add(Link.of("http://localhost:8083/products/category/Book/page/0/size/10", "category"));
+        product.add(Link.of("http://localhost:8084/reviews/product/" + id, "reviews"));
+
+        return product;
+    }
+}
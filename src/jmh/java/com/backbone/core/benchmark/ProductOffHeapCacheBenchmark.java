@@ -0,0 +1,74 @@
+package com.backbone.core.benchmark;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.config.ProductSerializer;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ehcache off-heap tier of product cache alone (no heap tier in front), so every get and put
+ * goes through ProductSerializer and off-heap memory. Size is the same as in config/ehcache.xml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductOffHeapCacheBenchmark {
+
+    private static final int PRODUCTS = 1000;
+
+    private CacheManager cacheManager;
+    private Cache<String, Product> cache;
+
+    private final String[] keys = new String[PRODUCTS];
+    private final Product[] products = new Product[PRODUCTS];
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache("product", CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(String.class, Product.class,
+                                                      ResourcePoolsBuilder.newResourcePoolsBuilder()
+                                                                          .offheap(10, MemoryUnit.MB))
+                        .withValueSerializer(ProductSerializer.class))
+                .build(true);
+
+        cache = cacheManager.getCache("product", String.class, Product.class);
+
+        // keys as ProductCacheKeys.product makes them
+        for (int i = 0; i < PRODUCTS; i++) {
+            keys[i] = (i + 1) + ":0";
+            products[i] = BenchmarkContext.product(i + 1, 2);
+
+            cache.put(keys[i], products[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Benchmark
+    public Product get() {
+        return cache.get(keys[next++ % PRODUCTS]);
+    }
+
+    @Benchmark
+    public void put() {
+        int i = next++ % PRODUCTS;
+
+        cache.put(keys[i], products[i]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.backbone.core.benchmark;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductRepository;
+import com.backbone.core.demo.ProductSummary;
+import com.backbone.core.demo.service.CatalogSnapshot;
+import com.backbone.core.demo.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page assembly of ProductService.getProducts
+ *
+ * - cached: getProducts on a hit of products cache (off-heap, see ProductSummaryPageSerializer)
+ * - query: what a miss does, summaries and count queries of a page
+ * - snapshot: what it does if product.snapshot.enabled, a slice of CatalogSnapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPageBenchmark {
+
+    @Param({"0", "4"})
+    private int page;
+
+    @Param({"20"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private CatalogSnapshot snapshot;
+
+    private String pageParam;
+    private String sizeParam;
+    private PageRequest pageRequest;
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start("product-page-benchmark");
+
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<Product> products = new ArrayList<>();
+        productRepository.findAll().forEach(products::add);
+        snapshot = CatalogSnapshot.of(products);
+
+        pageParam = String.valueOf(page);
+        sizeParam = String.valueOf(size);
+        pageRequest = PageRequest.of(page, size);
+
+        productService.getProducts(pageParam, sizeParam);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductSummary> cached() {
+        return productService.getProducts(pageParam, sizeParam).get();
+    }
+
+    @Benchmark
+    public Page<ProductSummary> query() {
+        return productRepository.findSummariesBy(pageRequest);
+    }
+
+    @Benchmark
+    public Page<ProductSummary> snapshot() {
+        return snapshot.page(pageRequest);
+    }
+}
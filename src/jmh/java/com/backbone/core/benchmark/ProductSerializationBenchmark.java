@@ -0,0 +1,63 @@
+package com.backbone.core.benchmark;
+
+import com.backbone.core.demo.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.EvoInflectorLinkRelationProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a product w/ links and reviews, as responses of /product/{id}
+ *
+ * - hal: application/json and application/hal+json, links as _links
+ * - cbor: application/cbor, see ContentNegotiationConfig
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({"2", "20"})
+    private int reviews;
+
+    private Product product;
+
+    private ObjectMapper hal;
+    private ObjectMapper cbor;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkContext.product(1, reviews);
+
+        hal = halMapper(new ObjectMapper());
+        cbor = halMapper(new ObjectMapper(new CBORFactory()));
+    }
+
+    @Benchmark
+    public byte[] hal() throws JsonProcessingException {
+        return hal.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws JsonProcessingException {
+        return cbor.writeValueAsBytes(product);
+    }
+
+    // same as Spring HATEOAS configures its converters
+    private static ObjectMapper halMapper(ObjectMapper mapper) {
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+
+        return mapper;
+    }
+}
@@ -0,0 +1,65 @@
+package com.backbone.core.benchmark;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.service.ProductCacheKeys;
+import com.backbone.core.demo.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService.getProduct, through RefreshAheadCache and Ehcache (see config/ehcache.xml)
+ *
+ * - hit: the same product, from heap tier
+ * - miss: products in turn, each evicted first, so it is loaded from db (Hibernate, H2) and put
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+    private ProductCacheKeys productCacheKeys;
+    private Cache productCache;
+
+    private int next;
+
+    @Setup
+    public void start() {
+        context = BenchmarkContext.start("product-service-benchmark");
+
+        productService = context.getBean(ProductService.class);
+        productCacheKeys = context.getBean(ProductCacheKeys.class);
+        productCache = context.getBean(CacheManager.class).getCache("product");
+
+        productService.getProduct("1");
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product getProductHit() {
+        return productService.getProduct("1").get();
+    }
+
+    @Benchmark
+    public Product getProductMiss() {
+        // ids 1..100, see schema.sql
+        String id = String.valueOf(next++ % 100 + 1);
+
+        productCache.evict(productCacheKeys.product(id));
+
+        return productService.getProduct(id).get();
+    }
+}
@@ -0,0 +1,134 @@
+package com.backbone.core.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies (HdrHistogram, in microseconds, 3 significant digits) and statuses per request type, and of all.
+ *
+ * Errors are 5xx, 417 (exceptions, see ProductController) and failed requests (status -1). Others, such as
+ * 412 of a write or 204 of a page, are answers of the service, counted in statuses only.
+ */
+class LatencyReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram all = histogram();
+    private final ConcurrentMap<String, Histogram> byType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Integer, AtomicLong>> statuses = new ConcurrentHashMap<>();
+
+    private volatile long elapsedNanos;
+
+    void record(String type, int status, long latencyNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_MICROS);
+
+        all.recordValue(micros);
+        byType.computeIfAbsent(type, t -> histogram()).recordValue(micros);
+
+        statuses.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status, s -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    void elapsed(long nanos) {
+        elapsedNanos = nanos;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-10s %10s %10s %8s %9s %9s %9s %9s %9s%n",
+                   "type", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+
+        new TreeMap<>(byType).forEach((type, histogram) -> print(out, type, histogram, errors(type)));
+
+        print(out, "all", all, statuses.keySet().stream().mapToLong(this::errors).sum());
+
+        out.printf("%nstatuses : %s%n", new TreeMap<>(statuses));
+    }
+
+    /**
+     * @param config of the test, written along results
+     */
+    void write(File file, Map<String, Object> config) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", new TreeMap<>(config));
+        report.put("durationSeconds", elapsedNanos / 1e9);
+        report.put("all", summary(all, statuses.keySet().stream().mapToLong(this::errors).sum()));
+
+        Map<String, Object> types = new TreeMap<>();
+        byType.forEach((type, histogram) -> {
+            Map<String, Object> summary = summary(histogram, errors(type));
+            summary.put("statuses", new TreeMap<>(statuses.get(type)));
+
+            types.put(type, summary);
+        });
+        report.put("types", types);
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                          .writeValue(file, report);
+    }
+
+    private void print(PrintStream out, String type, Histogram histogram, long errors) {
+        out.printf("%-10s %10d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                   type, histogram.getTotalCount(), throughput(histogram), errors,
+                   millis(histogram.getValueAtPercentile(50)),
+                   millis(histogram.getValueAtPercentile(95)),
+                   millis(histogram.getValueAtPercentile(99)),
+                   millis(histogram.getValueAtPercentile(99.9)),
+                   millis(histogram.getMaxValue()));
+    }
+
+    private Map<String, Object> summary(Histogram histogram, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("throughput", throughput(histogram));
+        summary.put("errors", errors);
+        summary.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+        summary.put("p95Ms", millis(histogram.getValueAtPercentile(95)));
+        summary.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(histogram.getMaxValue()));
+
+        return summary;
+    }
+
+    private long errors(String type) {
+        return statuses.getOrDefault(type, new ConcurrentHashMap<>())
+                       .entrySet()
+                       .stream()
+                       .filter(status -> isError(status.getKey()))
+                       .mapToLong(status -> status.getValue().get())
+                       .sum();
+    }
+
+    private static boolean isError(int status) {
+        return status < 0 || status == 417 || status >= 500;
+    }
+
+    private double throughput(Histogram histogram) {
+        return elapsedNanos == 0 ? 0 : histogram.getTotalCount() / (elapsedNanos / 1e9);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static Histogram histogram() {
+        return new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    }
+}
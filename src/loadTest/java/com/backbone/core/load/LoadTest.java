@@ -0,0 +1,167 @@
+package com.backbone.core.load;
+
+import com.backbone.core.CoreServiceApplication;
+import com.backbone.core.ReviewServiceStub;
+import com.backbone.core.demo.config.VirtualThreads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of a local instance, started on a random port against ReviewServiceStub.
+ *
+ * Workers send a mix of requests for warmup, then for duration, and latencies are reported per request type
+ * (p50, p95, p99, p999, max) w/ throughput and errors, on console and as JSON in load.report.
+ *
+ * Properties, all optional:
+ *  - load.threads                  concurrent workers, default 16
+ *  - load.warmup / load.duration   seconds, default 10 / 30
+ *  - load.rate                     requests/s of all workers, default 0: as fast as they can (closed loop).
+ *                                  Otherwise latency counts from the scheduled send time, so a stall is not
+ *                                  hidden by the requests it delayed (coordinated omission)
+ *  - load.mix                      weights of request types, default product:70,products:15,category:10,write:5
+ *  - load.review.latency-ms        latency of review-service stub, default 20
+ *  - load.review.failure-rate      503s of review-service stub (0..1), default 0
+ *  - load.app.*                    properties of the application, e.g. -Pload.app.product.snapshot.enabled=true
+ *                                  -Pload.app.spring.threads.virtual.enabled=true runs its executors on virtual
+ *                                  threads (JDK 21+, fails otherwise), see compareExecutors task in build.gradle
+ *  - load.report                   JSON report file, default build/reports/load/results.json
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("load.threads", 16);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30));
+        double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+        String mix = System.getProperty("load.mix", "product:70,products:15,category:10,write:5");
+        long reviewLatencyMs = Long.getLong("load.review.latency-ms", 20);
+        double reviewFailureRate = Double.parseDouble(System.getProperty("load.review.failure-rate", "0"));
+        File reportFile = new File(System.getProperty("load.report", "build/reports/load/results.json"));
+
+        ReviewServiceStub stub = new ReviewServiceStub();
+        stub.setLatencyMs(reviewLatencyMs);
+        stub.setFailureRate(reviewFailureRate);
+
+        // as args, so they override application.yaml
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0",
+                                                       "--review-service.url=" + stub.getUrl(),
+                                                       "--spring.datasource.url=jdbc:h2:mem:load-test",
+                                                       "--spring.jpa.show-sql=false",
+                                                       "--logging.level.root=warn"));
+
+        for (String property : appProperties())
+            appArgs.add("--" + property);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CoreServiceApplication.class)
+                .run(appArgs.toArray(new String[0]));
+
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String execution = context.getBean(VirtualThreads.class).isEnabled() ? "virtual" : "platform";
+
+            // else it would be reported as a platform run, and compared w/ one
+            if (context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                && execution.equals("platform"))
+                throw new IllegalStateException("Virtual threads requested, not supported on java " +
+                                                Runtime.version());
+
+            Workload workload = new Workload("http://localhost:" + port, Workload.parseMix(mix));
+
+            System.out.printf("Load test [threads:%d, rate:%s, mix:%s, review latency:%dms, failure rate:%s, " +
+                              "execution:%s]%n",
+                              threads, rate > 0 ? rate + "/s" : "max", mix, reviewLatencyMs, reviewFailureRate,
+                              execution);
+
+            run(workload, threads, rate, warmup, new LatencyReport());
+
+            LatencyReport report = new LatencyReport();
+            run(workload, threads, rate, duration, report);
+
+            report.print(System.out);
+            report.write(reportFile, Map.of("threads", threads,
+                                            "rate", rate,
+                                            "mix", mix,
+                                            "reviewLatencyMs", reviewLatencyMs,
+                                            "reviewFailureRate", reviewFailureRate,
+                                            "execution", execution,
+                                            "app", appProperties()));
+
+            System.out.println("Report : " + reportFile.getAbsolutePath());
+
+        } finally {
+            context.close();
+            stub.stop();
+        }
+    }
+
+    private static void run(Workload workload, int threads, double rate, Duration duration, LatencyReport report)
+            throws Exception {
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        // each worker sends at rate / threads
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * threads / rate) : 0;
+
+        List<Future<?>> futures = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            long offset = interval * i / threads;
+
+            futures.add(workers.submit(() -> {
+                long scheduled = start + offset;
+
+                while (scheduled < end && System.nanoTime() < end) {
+                    if (interval > 0)
+                        LockSupport.parkNanos(scheduled - System.nanoTime());
+
+                    long sent = interval > 0 ? scheduled : System.nanoTime();
+
+                    Workload.Request request = workload.next();
+                    int status = workload.send(request);
+
+                    report.record(request.getType(), status, System.nanoTime() - sent);
+
+                    scheduled = interval > 0 ? scheduled + interval : System.nanoTime();
+                }
+
+                return null;
+            }));
+        }
+
+        for (Future<?> future : futures)
+            future.get();
+
+        report.elapsed(System.nanoTime() - start);
+
+        workers.shutdown();
+    }
+
+    // load.app.x=y => x=y
+    private static String[] appProperties() {
+        return System.getProperties()
+                     .stringPropertyNames()
+                     .stream()
+                     .filter(name -> name.startsWith("load.app."))
+                     .sorted()
+                     .map(name -> name.substring("load.app.".length()) + "=" + System.getProperty(name))
+                     .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,233 @@
+package com.backbone.core.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Requests of a load test, picked at random by weight of their type:
+ *
+ *  - product    GET /product/{id}
+ *  - products   GET /products/page/{page}/size/10
+ *  - category   GET /products/category/{category}/page/{page}/size/10
+ *  - write      POST /product, updates subTitle of a product
+ *
+ * Ids, pages and categories are those of the catalog when the test starts. POST /product replaces a product,
+ * so writes send the full product as read on start (GET /product/{id}), only w/ a new subTitle.
+ * Reviews are left out, they come from review-service, and are not saved w/ product.
+ */
+class Workload {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String[] types;
+    private final int[] cumulativeWeights;
+
+    private final List<Map<String, Object>> products;
+
+    // id => full product, body of writes
+    private final Map<Object, Map<String, Object>> details;
+    private final List<String> categories;
+    private final Map<String, Integer> categorySizes = new HashMap<>();
+
+    private final AtomicLong writes = new AtomicLong();
+
+    Workload(String baseUrl, Map<String, Integer> mix) throws IOException, InterruptedException {
+        this.baseUrl = baseUrl;
+
+        client = HttpClient.newBuilder()
+                           .version(HttpClient.Version.HTTP_1_1)
+                           .connectTimeout(Duration.ofSeconds(5))
+                           .build();
+
+        types = mix.keySet().toArray(new String[0]);
+        cumulativeWeights = new int[types.length];
+
+        int total = 0;
+        for (int i = 0; i < types.length; i++)
+            cumulativeWeights[i] = total += mix.get(types[i]);
+
+        products = catalog();
+
+        if (products.isEmpty())
+            throw new IllegalStateException("No products to load test");
+
+        products.forEach(product -> categorySizes.merge((String) product.get("category"), 1, Integer::sum));
+        categories = new ArrayList<>(new TreeSet<>(categorySizes.keySet()));
+
+        details = mix.containsKey("write") ? details(products) : Map.of();
+    }
+
+    /**
+     * @param mix such as product:70,products:15,category:10,write:5
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+
+        for (String entry : mix.split(",")) {
+            String[] typeAndWeight = entry.trim().split(":");
+
+            String type = typeAndWeight[0];
+            int weight = Integer.parseInt(typeAndWeight[1]);
+
+            if (!Set.of("product", "products", "category", "write").contains(type) || weight < 0)
+                throw new IllegalArgumentException("Invalid mix entry " + entry);
+
+            if (weight > 0)
+                weights.put(type, weight);
+        }
+
+        if (weights.isEmpty())
+            throw new IllegalArgumentException("Empty mix " + mix);
+
+        return weights;
+    }
+
+    Request next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        String type = types[0];
+
+        for (int i = 0; i < types.length; i++)
+            if (pick < cumulativeWeights[i]) {
+                type = types[i];
+                break;
+            }
+
+        Map<String, Object> product = products.get(random.nextInt(products.size()));
+
+        switch (type) {
+            case "product":
+                return new Request(type, get("/product/" + product.get("id")));
+
+            case "products":
+                return new Request(type, get("/products/page/" + random.nextInt(pages(products.size())) +
+                                             "/size/" + PAGE_SIZE));
+
+            case "category":
+                String category = categories.get(random.nextInt(categories.size()));
+
+                return new Request(type, get("/products/category/" + encode(category) +
+                                             "/page/" + random.nextInt(pages(categorySizes.get(category))) +
+                                             "/size/" + PAGE_SIZE));
+
+            default:
+                Map<String, Object> update = new HashMap<>(details.get(product.get("id")));
+                update.put("subTitle", "load test write " + writes.incrementAndGet());
+
+                return new Request(type, HttpRequest.newBuilder(URI.create(baseUrl + "/product"))
+                                                    .header("Content-Type", "application/json")
+                                                    .POST(HttpRequest.BodyPublishers.ofString(json(update)))
+                                                    .build());
+        }
+    }
+
+    /**
+     * @return status, or -1 if request failed w/o response (connection, timeout...)
+     */
+    int send(Request request) {
+        try {
+            return client.send(request.getHttpRequest(), HttpResponse.BodyHandlers.discarding())
+                         .statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return -1;
+        }
+    }
+
+    // all product summaries, page by page
+    private List<Map<String, Object>> catalog() throws IOException, InterruptedException {
+        List<Map<String, Object>> catalog = new ArrayList<>();
+
+        for (int page = 0; ; page++) {
+            HttpResponse<String> response = client.send(get("/products/page/" + page + "/size/100"),
+                                                        HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() != 200)
+                return catalog;
+
+            catalog.addAll(mapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>() {}));
+        }
+    }
+
+    // full products, w/o version (last write wins), reviews and links
+    private Map<Object, Map<String, Object>> details(List<Map<String, Object>> summaries) {
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(summaries.size());
+
+        for (Map<String, Object> summary : summaries)
+            futures.add(client.sendAsync(get("/product/" + summary.get("id")), HttpResponse.BodyHandlers.ofString())
+                              .thenApply(response -> {
+                                  if (response.statusCode() != 200)
+                                      throw new IllegalStateException("Product " + summary.get("id") +
+                                                                      " returned " + response.statusCode());
+                                  try {
+                                      return mapper.readValue(response.body(),
+                                                              new TypeReference<Map<String, Object>>() {});
+                                  } catch (IOException e) {
+                                      throw new IllegalStateException(e);
+                                  }
+                              }));
+
+        Map<Object, Map<String, Object>> details = new HashMap<>();
+
+        for (CompletableFuture<Map<String, Object>> future : futures) {
+            Map<String, Object> product = future.join();
+
+            product.keySet().removeAll(Set.of("version", "reviews", "links", "_links"));
+            details.put(product.get("id"), product);
+        }
+
+        return details;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                          .header("Accept", "application/json")
+                          .timeout(Duration.ofSeconds(30))
+                          .GET()
+                          .build();
+    }
+
+    private String json(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String pathSegment) {
+        return URLEncoder.encode(pathSegment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static int pages(int count) {
+        return Math.max(1, (count + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    @Value
+    static class Request {
+        String type;
+        HttpRequest httpRequest;
+    }
+}
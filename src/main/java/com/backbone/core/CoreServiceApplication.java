@@ -5,10 +5,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
 import org.springframework.web.client.RestTemplate;
 
 @EnableFeignClients
-@EnableCaching
+// caching advice wraps CacheLoadTimer, so only misses are timed
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 @SpringBootApplication
 public class CoreServiceApplication {
 
@@ -17,8 +17,10 @@ public class Product extends RepresentationModel implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // pooled sequence, so inserts can be batched (IDENTITY can't). see schema.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // disables HIBERNATE_SEQUENCE
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private int id;
 
     private String category;
@@ -29,7 +31,32 @@ public class Product extends RepresentationModel implements Serializable {
     private String shortDescription;
     private String description;
 
+    // optimistic lock, also ETag of product. see ProductController
+    @Version
+    private int version;
+
     //todo: that creates unnecessary REVIEW and PRODUCT_REVIEWS table. but not a big deal?
     @OneToMany(fetch = FetchType.EAGER)
     private List<Review> reviews;
+
+    /**
+     * Shallow copy. Use it before enriching (setReviews...) a cached instance.
+     */
+    public Product copy() {
+        Product copy = new Product();
+
+        copy.setId(id);
+        copy.setCategory(category);
+        copy.setTitle(title);
+        copy.setSubTitle(subTitle);
+        copy.setBrand(brand);
+        copy.setRating(rating);
+        copy.setShortDescription(shortDescription);
+        copy.setDescription(description);
+        copy.setVersion(version);
+        copy.setReviews(reviews);
+        copy.add(getLinks());
+
+        return copy;
+    }
 }
@@ -0,0 +1,19 @@
+package com.backbone.core.demo;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Category directory entry: product count and most common brands (brand => product count, most first).
+ */
+@Value
+public class ProductCategory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    String name;
+    long count;
+    Map<String, Long> topBrands;
+}
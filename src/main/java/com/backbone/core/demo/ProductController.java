@@ -1,20 +1,33 @@
 package com.backbone.core.demo;
 
+import com.backbone.core.demo.service.FacetedProducts;
+import com.backbone.core.demo.service.ProductCursor;
+import com.backbone.core.demo.service.ProductETag;
+import com.backbone.core.demo.service.ProductExporter;
+import com.backbone.core.demo.service.ProductImporter;
+import com.backbone.core.demo.service.ProductOrchestrator;
 import com.backbone.core.demo.service.ProductService;
-import com.backbone.core.demo.service.ReviewService;
+import com.backbone.core.demo.service.ReviewBatchLoader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -35,6 +48,8 @@ import java.util.stream.Collectors;
  * - Filtering and Search (coupled w/ db selection) concepts.
  * - Orchestration layer in service ops: Low degree of coupling vs non-coupling
  *
+ * GET responses carry an ETag (strong for a product, weak for lists, see ProductETag),
+ * If-None-Match w/ it returns HttpStatus.NOT_MODIFIED and no body.
  */
 @RestController
 @Slf4j
@@ -43,6 +58,15 @@ public class ProductController {
     private static final String PAGE = "0";
     private static final String SIZE = "10";
 
+    // lists enrichments missing in a partial response, such as "reviews"
+    public static final String PARTIAL_RESPONSE = "X-Partial-Response";
+
+    // cursor of the next page in keyset pagination, absent on last page
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
     @Autowired
     ProductRepository productRepository;
 
@@ -50,7 +74,19 @@ public class ProductController {
     ProductService productService;
 
     @Autowired
-    ReviewService reviewService;
+    ProductExporter productExporter;
+
+    @Autowired
+    ProductImporter productImporter;
+
+    @Autowired
+    ReviewBatchLoader reviewBatchLoader;
+
+    @Autowired
+    ProductOrchestrator productOrchestrator;
+
+    @Value("${product.orchestration.async:false}")
+    private boolean asyncOrchestration;
 
 //  Read ops
 
@@ -60,15 +96,23 @@ public class ProductController {
      * Get product by Id. Then call other services to gather more data.
      * It caches data after 1st call w/ id.
      *
-     * @cached: product
+     * If product.orchestration.async is on, product lookup and other service calls run
+     * at the same time, each w/ its own timeout. Late or failed enrichments are left out,
+     * and listed in X-Partial-Response header, and response has no ETag.
+     * Otherwise, calls run after the lookup. If review-service fails, last-known reviews are returned,
+     * or w/o them, reviews are left out the same way. see ReviewClient
+     *
+     * @cached: product, reviews (stale ones are reloaded in background, see ReviewCache)
      *
      * log format: message [param1, param2] : returned-object
-     *     message can be => Not found, Get, Returned, Exception
+     *     message can be => Not found, Get, Returned, Timeout, Exception
      *
      * @param id Product's Id in URL
-     * @return If find, returns Product, and HttpStatus.OK
+     * @return If find, returns Product w/ ETag, and HttpStatus.OK
+     *         If ETag matches If-None-Match, returns no body, and HttpStatus.NOT_MODIFIED
      *         If parameter is not valid (such as string instead int), returns Null, and HttpStatus.BAD_REQUEST
      *         If not found (empty Product), returns Null, and HttpStatus.NOT_FOUND
+     *         If async product lookup misses its timeout, returns Null, and HttpStatus.SERVICE_UNAVAILABLE
      *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
      */
     @GetMapping("/product/{id}")
@@ -76,26 +120,54 @@ public class ProductController {
         log.info("Get [id:{}]", id);
 
         try {
+            if (asyncOrchestration) {
+                ProductOrchestrator.EnrichedProduct enriched = productOrchestrator.getProduct(id);
+
+                log.info("Returned [id:{}, missing:{}] : {}", id, enriched.getMissing(), enriched.getProduct());
+
+                // a partial response is not the product, so it gets no ETag
+                HttpHeaders headers = new HttpHeaders();
+                if (enriched.isPartial())
+                    headers.add(PARTIAL_RESPONSE, String.join(",", enriched.getMissing()));
+                else
+                    headers.setETag(ProductETag.strong(enriched.getProduct()));
+
+                return new ResponseEntity<>(enriched.getProduct(), headers, HttpStatus.OK);
+            }
+
             AtomicReference<ResponseEntity<Product>> result = new AtomicReference<>();
 
             productService.getProduct(id)
                           .ifPresent(product -> {
 
                     // todo: creates low degree of coupling !
-                    // call review-service
-                    reviewService.productsReviews(id)
-                                 .ifPresent(reviews -> {
+                    // reviews cache, or call review-service: concurrent lookups are coalesced into one bulk call
+                    Optional<List<Review>> reviews = reviewBatchLoader.load(id)
+                                                                      .thenApply(Optional::of)
+                                                                      .exceptionally(e -> Optional.empty())
+                                                                      .join();
 
-                                     log.info("Call review-service [id:{}, count:{}]", id, reviews.size());
+                    // call other-services, if necessary
 
-                                     product.setReviews(reviews);
-                                 });
+                    if (reviews.isEmpty()) {
+                        Product partial = product.copy();
+                        partial.setReviews(null);
 
-                    // call other-services, if necessary
+                        log.warn("Returned partial [id:{}, missing:{}] : {}", id, ProductOrchestrator.REVIEWS, partial);
+
+                        result.set(ResponseEntity.ok().header(PARTIAL_RESPONSE, ProductOrchestrator.REVIEWS).body(partial));
+                        return;
+                    }
+
+                    log.info("Call review-service [id:{}, count:{}]", id, reviews.get().size());
+
+                    // product may be a cached instance, shared by concurrent requests
+                    Product enriched = product.copy();
+                    enriched.setReviews(reviews.get());
 
-                    log.info("Returned [id:{}] : {}", id, product);
+                    log.info("Returned [id:{}] : {}", id, enriched);
 
-                    result.set(new ResponseEntity<>(product, HttpStatus.OK));
+                    result.set(ResponseEntity.ok().eTag(ProductETag.strong(enriched)).body(enriched));
             });
 
             return result.get();
@@ -108,6 +180,10 @@ public class ProductController {
             log.warn("Not found [id:{}] : {}", id, npe.getMessage());
 
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (TimeoutException te) {
+            log.warn("Timeout [id:{}] : {}", id, te.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             log.error("Exception [id:{}] : {}", id, e.getMessage());
 
@@ -117,13 +193,14 @@ public class ProductController {
 
     /**
      * Get all products via paging and size.
+     * Returns ProductSummary (header fields only), use /product/{id} for details.
      * It caches data after 1st call.
      *
      * @cached: product
      *
      * @param page default=0 to ...N
      * @param size default=10, if empty
-     * @return If OK, returns List<Product>, and HttpStatus.OK
+     * @return If OK, returns List<ProductSummary>, and HttpStatus.OK
      *         If parameter is not valid (such as string instead int), returns Null, and HttpStatus.BAD_REQUEST
      *         If page or size have no record, returns null, and HttpStatus.NO_CONTENT
      *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
@@ -131,8 +208,8 @@ public class ProductController {
     @GetMapping(path = {"/products",
                         "/products/page/{page}",
                         "/products/page/{page}/size/{size}"})
-    public ResponseEntity<List<Product>> getProducts(@PathVariable(required = false) String page,
-                                                     @PathVariable(required = false) String size) {
+    public ResponseEntity<List<ProductSummary>> getProducts(@PathVariable(required = false) String page,
+                                                            @PathVariable(required = false) String size) {
         //set defaults
         String p = Optional.ofNullable(page).orElse(PAGE);
         String s = Optional.ofNullable(size).orElse(SIZE);
@@ -142,14 +219,16 @@ public class ProductController {
         //todo: If you get, non number page or size, You must return Bad request,
         // but it expects String in url. Consider to add a validation step?
         try {
-            AtomicReference<ResponseEntity<List<Product>>> result = new AtomicReference<>();
+            AtomicReference<ResponseEntity<List<ProductSummary>>> result = new AtomicReference<>();
 
             productService.getProducts(p, s)
                           .ifPresent(products -> {
 
                             log.info("Returned [page:{}, size:{}] : {}", p, s, products.getContent());
 
-                            result.set(new ResponseEntity<>(products.getContent(), HttpStatus.OK));
+                            result.set(ResponseEntity.ok()
+                                                    .eTag(ProductETag.weak(products.getContent()))
+                                                    .body(products.getContent()));
 
                           });
 
@@ -171,27 +250,188 @@ public class ProductController {
     }
 
     /**
-     * Get all distinct categories
+     * Get all products via keyset (cursor) pagination. No OFFSET and no COUNT query,
+     * so deep pages cost the same as the 1st one.
+     * Start w/ empty after (?after=), then pass X-Next-Cursor header of each response.
+     *
+     * @cached: nope
+     *
+     * @param after opaque cursor, empty for 1st page
+     * @param size default=10, if empty
+     * @return If OK, returns List<ProductSummary> and X-Next-Cursor header (if more), and HttpStatus.OK
+     *         If cursor or size is not valid, returns Null, and HttpStatus.BAD_REQUEST
+     *         If no record after cursor, returns null, and HttpStatus.NO_CONTENT
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @GetMapping(path = "/products", params = "after")
+    public ResponseEntity<List<ProductSummary>> getProductsAfter(@RequestParam String after,
+                                                                 @RequestParam(defaultValue = SIZE) String size) {
+        log.info("Get [after:{}, size:{}]", after, size);
+
+        try {
+            AtomicReference<ResponseEntity<List<ProductSummary>>> result = new AtomicReference<>();
+
+            productService.getProductsAfter(after, size)
+                          .ifPresent(products -> {
+
+                              log.info("Returned [after:{}, size:{}] : {}", after, size, products.getContent());
+
+                              result.set(sliceResponse(products));
+                          });
+
+            return result.get();
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [after:{}, size:{}] : {}", after, size, iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (NullPointerException npe) {
+            log.warn("No content [after:{}, size:{}] : {}", after, size, npe.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (Exception e) {
+            log.error("Exception [after:{}, size:{}] : {}", after, size, e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    /**
+     * Full-text search on title, subTitle, brand, shortDescription and description, best matches first.
+     * Served from an in-memory index, see ProductSearchIndex
+     *
+     * @cached: nope
+     *
+     * @param q words to search, any of them matches
+     * @param page default=0 to ...N
+     * @param size default=10, if empty
+     * @return If OK, returns List<ProductSummary>, and HttpStatus.OK
+     *         If q is empty, or page or size is not valid, returns Null, and HttpStatus.BAD_REQUEST
+     *         If no match, returns null, and HttpStatus.NO_CONTENT
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<List<ProductSummary>> searchProducts(@RequestParam String q,
+                                                               @RequestParam(defaultValue = PAGE) String page,
+                                                               @RequestParam(defaultValue = SIZE) String size) {
+        log.info("Search [q:{}, page:{}, size:{}]", q, page, size);
+
+        try {
+            AtomicReference<ResponseEntity<List<ProductSummary>>> result = new AtomicReference<>();
+
+            productService.searchProducts(q, page, size)
+                          .ifPresent(products -> {
+
+                              log.info("Returned [q:{}, page:{}, size:{}] : {}", q, page, size, products);
+
+                              result.set(ResponseEntity.ok().eTag(ProductETag.weak(products)).body(products));
+                          });
+
+            return result.get();
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [q:{}, page:{}, size:{}] : {}", q, page, size, iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (NullPointerException npe) {
+            log.warn("No content [q:{}, page:{}, size:{}] : {}", q, page, size, npe.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (Exception e) {
+            log.error("Exception [q:{}, page:{}, size:{}] : {}", q, page, size, e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    /**
+     * Filter products by category, brand and min rating, w/ facet counts for storefront navigation.
+     * Counts of a facet ignore its own filter, so other values stay selectable. see FacetAggregate
+     *
+     * @cached: nope
      *
-     * @cached: categories
+     * @param category, brand optional, exact match
+     * @param minRating optional, products rated at least this
+     * @param page default=0 to ...N
+     * @param size default=10, if empty
+     * @return If OK, returns FacetedProducts (page of ProductSummary, total, facet counts), and HttpStatus.OK
+     *         If minRating, page or size is not valid, returns Null, and HttpStatus.BAD_REQUEST
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @GetMapping("/products/filter")
+    public ResponseEntity<FacetedProducts> filterProducts(@RequestParam(required = false) String category,
+                                                          @RequestParam(required = false) String brand,
+                                                          @RequestParam(required = false) String minRating,
+                                                          @RequestParam(defaultValue = PAGE) String page,
+                                                          @RequestParam(defaultValue = SIZE) String size) {
+        log.info("Filter [category:{}, brand:{}, minRating:{}, page:{}, size:{}]", category, brand, minRating, page, size);
+
+        try {
+            AtomicReference<ResponseEntity<FacetedProducts>> result = new AtomicReference<>();
+
+            productService.filterProducts(category, brand, minRating, page, size)
+                          .ifPresent(products -> {
+
+                              log.info("Returned [category:{}, brand:{}, minRating:{}] : {}",
+                                       category, brand, minRating, products.getFacets().getTotal());
+
+                              result.set(ResponseEntity.ok().eTag(ProductETag.weak(products)).body(products));
+                          });
+
+            return result.get();
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [minRating:{}, page:{}, size:{}] : {}", minRating, page, size, iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Exception [category:{}, brand:{}, minRating:{}] : {}", category, brand, minRating, e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    /**
+     * Export all products as NDJSON, a Product per line ordered by id.
+     * Streamed from db cursor, so memory use doesn't grow w/ catalog. see ProductExporter
      *
-     * @return If OK, returns categories, and HttpStatus.OK
+     * @cached: nope
+     *
+     * @return If OK, streams products, and HttpStatus.OK
+     *         If any exception occurs while streaming, response is cut
+     */
+    @GetMapping(path = "/products/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        log.info("Export");
+
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType(NDJSON))
+                             .body(productExporter::export);
+    }
+
+    /**
+     * Get category directory: all categories, w/ product count and top brands of each.
+     * Maintained in memory as products change, never scans products. see FacetAggregate
+     *
+     * @cached: nope
+     *
+     * @return If OK, returns List<ProductCategory> ordered by name, and HttpStatus.OK
      *         If no record, returns null, and HttpStatus.NOT_FOUND
      *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
      */
     @GetMapping("/products/category")
-    public ResponseEntity<List<String>> getCategories() {
+    public ResponseEntity<List<ProductCategory>> getCategories() {
         log.info("Get");
 
         try {
-            AtomicReference<ResponseEntity<List<String>>> result = new AtomicReference<>();
+            AtomicReference<ResponseEntity<List<ProductCategory>>> result = new AtomicReference<>();
 
             productService.getCategories()
                           .ifPresent(categories -> {
 
                               log.info("Returned : {}", categories);
 
-                              result.set(new ResponseEntity<>(categories, HttpStatus.OK));
+                              result.set(ResponseEntity.ok().eTag(ProductETag.weak(categories)).body(categories));
 
                           });
 
@@ -223,22 +463,30 @@ public class ProductController {
      *   id != 0 and isValid, updates
      *   id != 0 and notValid, creates and risks cache!
      *
+     * Updates are optimistic: w/ If-Match (ETag of GET /product/{id}), product is saved only if not changed since.
+     * W/o If-Match, it is written over the current version.
+     *
      * @param product as JSON in RequestBody
+     * @param ifMatch optional, ETag of product
      * @return If OK, returns updated or created Product, and HttpStatus.OK
-     *         If RequestBody or Id not OK, returns Null, and HttpStatus.BAD_REQUEST
+     *         If RequestBody, Id or If-Match not OK, returns Null, and HttpStatus.BAD_REQUEST
+     *         If product changed since If-Match, returns Null, and HttpStatus.PRECONDITION_FAILED
      *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
      */
     @PostMapping("/product")
-    public ResponseEntity<Product> saveProduct(@RequestBody Product product) {
+    public ResponseEntity<Product> saveProduct(@RequestBody Product product,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                       String ifMatch) {
 
-        log.info("Save [product:{}]", product);
+        log.info("Save [product:{}, ifMatch:{}]", product, ifMatch);
 
         try {
             AtomicReference<ResponseEntity<Product>> result = new AtomicReference<>();
 
             Optional.of(product)
                     .flatMap(product1 ->
-                            productService.saveProduct(String.valueOf(product1.getId()), product1))
+                            productService.saveProduct(String.valueOf(product1.getId()), product1,
+                                                       ifMatch == null ? null : ProductETag.version(ifMatch)))
                                           .ifPresent(updatedProduct -> {
                                               log.info("Saved : {}", updatedProduct);
 
@@ -247,6 +495,10 @@ public class ProductController {
 
             return result.get();
 
+        } catch (OptimisticLockingFailureException olfe) {
+            log.warn("Precondition failed [product:{}, ifMatch:{}]", product, ifMatch);
+
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
         } catch (IllegalArgumentException iae) {
             log.error("Bad request [product:{}]", product);
 
@@ -259,6 +511,111 @@ public class ProductController {
         }
     }
 
+    /**
+     * Create products in bulk, e.g. for catalog sync. Ids in RequestBody are ignored.
+     *
+     * @cached: product, products, productsByCategory are invalidated once per batch
+     *
+     * @param products as JSON array in RequestBody, product.batch.max-size at most
+     * @return If OK, returns created Products, and HttpStatus.OK
+     *         If RequestBody is empty or too big, returns Null, and HttpStatus.BAD_REQUEST
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @PostMapping("/products/batch")
+    public ResponseEntity<List<Product>> saveProducts(@RequestBody List<Product> products) {
+
+        log.info("Save batch [size:{}]", products.size());
+
+        try {
+            AtomicReference<ResponseEntity<List<Product>>> result = new AtomicReference<>();
+
+            productService.saveProducts(products)
+                          .ifPresent(savedProducts -> {
+                              log.info("Saved batch : {}", savedProducts.size());
+
+                              result.set(new ResponseEntity<>(savedProducts, HttpStatus.OK));
+                          });
+
+            return result.get();
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [size:{}] : {}", products.size(), iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+
+            log.error("Exception [size:{}] : {}", products.size(), e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    /**
+     * Import products from a feed (NDJSON or CSV w/ header), parsed as it is read, committed in chunks.
+     * Ids in feed are ignored. see ProductImporter
+     *
+     * @cached: product, products, productsByCategory are invalidated once, when import finishes
+     *
+     * @param feed as application/x-ndjson or text/csv RequestBody, a product per line
+     * @return If OK, returns ImportReport (accepted and rejected counts, rejected lines), and HttpStatus.OK
+     *         If CSV header is not valid, returns Null, and HttpStatus.BAD_REQUEST
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @PostMapping(path = "/products/import", consumes = {NDJSON, CSV})
+    public ResponseEntity<ProductImporter.ImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream feed) {
+
+        ProductImporter.Format format = importFormat(contentType);
+
+        log.info("Import [format:{}]", format);
+
+        try {
+            ProductImporter.ImportReport report = productImporter.importProducts(feed, format);
+
+            log.info("Imported [format:{}] : {} accepted, {} rejected", format, report.getAccepted(), report.getRejected());
+
+            return new ResponseEntity<>(report, HttpStatus.OK);
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [format:{}] : {}", format, iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+
+            log.error("Exception [format:{}] : {}", format, e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    /**
+     * Import products as above, w/ progress streamed while importing, if client accepts application/x-ndjson.
+     *
+     * @cached: product, products, productsByCategory are invalidated once, when import finishes
+     *
+     * @param feed as application/x-ndjson or text/csv RequestBody, a product per line
+     * @return NDJSON w/ a line of accepted and rejected counts so far per committed chunk, then ImportReport,
+     *         and HttpStatus.OK. If CSV header is not valid, or reading feed fails, last line is {"error": ...}
+     */
+    @PostMapping(path = "/products/import", consumes = {NDJSON, CSV}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importProductsWithProgress(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream feed) {
+
+        ProductImporter.Format format = importFormat(contentType);
+
+        log.info("Import w/ progress [format:{}]", format);
+
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType(NDJSON))
+                             .body(out -> productImporter.importProducts(feed, format, out));
+    }
+
+    private static ProductImporter.Format importFormat(String contentType) {
+        return MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf(CSV))
+               ? ProductImporter.Format.CSV
+               : ProductImporter.Format.NDJSON;
+    }
+
 
     /**
      * Delete product.
@@ -305,22 +662,23 @@ public class ProductController {
 
     /**
      * Get products by category via paging and size.
+     * Returns ProductSummary (header fields only), use /product/{id} for details.
      *
-     * @cached: nope
+     * @cached: productsByCategory
      *
      * @param category category of product
      * @param page default=0 to ...N
      * @param size default=10, if empty
-     * @return If OK, returns List<Product>, and HttpStatus.OK
+     * @return If OK, returns List<ProductSummary>, and HttpStatus.OK
      *         If page or size have no record, returns null, and HttpStatus.NO_CONTENT
      *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
      */
     @GetMapping(path = {"/products/category/{category}",
                         "/products/category/{category}/page/{page}",
                         "/products/category/{category}/page/{page}/size/{size}"})
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category,
-                                                               @PathVariable(required = false) String page,
-                                                               @PathVariable(required = false) String size) {
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable String category,
+                                                                      @PathVariable(required = false) String page,
+                                                                      @PathVariable(required = false) String size) {
         // set defaults
         String p = Optional.ofNullable(page).orElse(PAGE);
         String s = Optional.ofNullable(size).orElse(SIZE);
@@ -328,7 +686,7 @@ public class ProductController {
         log.info("Get [category:{}, page:{}, size:{}]", category, page, size);
 
         try {
-            AtomicReference<ResponseEntity<List<Product>>> result = new AtomicReference<>();
+            AtomicReference<ResponseEntity<List<ProductSummary>>> result = new AtomicReference<>();
 
             productService.getProductsByCategory(category, p, s)
                           .ifPresent(products -> {
@@ -339,7 +697,9 @@ public class ProductController {
                                                                                         , s
                                                                                         , products.getContent());
 
-                              result.set(new ResponseEntity<>(products.getContent(), HttpStatus.OK));
+                              result.set(ResponseEntity.ok()
+                                                    .eTag(ProductETag.weak(products.getContent()))
+                                                    .body(products.getContent()));
                           });
 
             return result.get();
@@ -355,4 +715,67 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get products by category via keyset (cursor) pagination, seeks on (category, id).
+     * Start w/ empty after (?after=), then pass X-Next-Cursor header of each response.
+     *
+     * @cached: nope
+     *
+     * @param category category of product
+     * @param after opaque cursor, empty for 1st page
+     * @param size default=10, if empty
+     * @return If OK, returns List<ProductSummary> and X-Next-Cursor header (if more), and HttpStatus.OK
+     *         If cursor or size is not valid, returns Null, and HttpStatus.BAD_REQUEST
+     *         If no record after cursor, returns null, and HttpStatus.NO_CONTENT
+     *         If any exception occurs, returns null, and HttpStatus.EXPECTATION_FAILED
+     */
+    @GetMapping(path = "/products/category/{category}", params = "after")
+    public ResponseEntity<List<ProductSummary>> getProductsByCategoryAfter(@PathVariable String category,
+                                                                           @RequestParam String after,
+                                                                           @RequestParam(defaultValue = SIZE) String size) {
+        log.info("Get [category:{}, after:{}, size:{}]", category, after, size);
+
+        try {
+            AtomicReference<ResponseEntity<List<ProductSummary>>> result = new AtomicReference<>();
+
+            productService.getProductsByCategoryAfter(category, after, size)
+                          .ifPresent(products -> {
+
+                              log.info("Returned [category:{}, after:{}, size:{}] : {}", category
+                                                                                         , after
+                                                                                         , size
+                                                                                         , products.getContent());
+
+                              result.set(sliceResponse(products));
+                          });
+
+            return result.get();
+
+        } catch (IllegalArgumentException iae) {
+            log.error("Bad request [category:{}, after:{}, size:{}] : {}", category, after, size, iae.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (NullPointerException npe) {
+            log.warn("No content [category:{}, after:{}, size:{}]", category, after, size);
+
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (Exception e) {
+            log.error("Exception [category:{}, after:{}, size:{}] : {}", category, after, size, e.getMessage());
+
+            return new ResponseEntity<>(HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    private static ResponseEntity<List<ProductSummary>> sliceResponse(Slice<ProductSummary> products) {
+        List<ProductSummary> content = products.getContent();
+
+        HttpHeaders headers = new HttpHeaders();
+        if (products.hasNext())
+            headers.add(NEXT_CURSOR, ProductCursor.encode(content.get(content.size() - 1).getId()));
+
+        headers.setETag(ProductETag.weak(content));
+
+        return new ResponseEntity<>(content, headers, HttpStatus.OK);
+    }
+
 }
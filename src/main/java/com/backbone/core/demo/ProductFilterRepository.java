@@ -0,0 +1,19 @@
+package com.backbone.core.demo;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom fragment of ProductRepository, see ProductFilterRepositoryImpl
+ */
+public interface ProductFilterRepository {
+
+    // null filters are skipped, so each query has only the predicates it needs and can use their index
+    List<ProductSummary> filterSummaries(String category, String brand, Integer minRating, Pageable pageable);
+
+    // all products by id w/ their reviews joined, not a reviews query per product. scrolls over a cursor,
+    // must be consumed (and closed) in a transaction. see ProductExporter
+    Stream<Product> streamAllWithReviews(int fetchSize);
+}
@@ -0,0 +1,69 @@
+package com.backbone.core.demo;
+
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> filterSummaries(String category, String brand, Integer minRating, Pageable pageable) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (category != null)
+            predicates.add(cb.equal(product.get("category"), category));
+
+        if (brand != null)
+            predicates.add(cb.equal(product.get("brand"), brand));
+
+        if (minRating != null)
+            predicates.add(cb.ge(product.get("rating"), minRating));
+
+        query.select(cb.construct(ProductSummary.class,
+                                  product.get("id"),
+                                  product.get("title"),
+                                  product.get("subTitle"),
+                                  product.get("brand"),
+                                  product.get("rating"),
+                                  product.get("category"),
+                                  product.get("shortDescription"),
+                                  product.get("version")))
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.asc(product.get("id")));
+
+        return entityManager.createQuery(query)
+                            .setFirstResult((int) pageable.getOffset())
+                            .setMaxResults(pageable.getPageSize())
+                            .getResultList();
+    }
+
+    @Override
+    public Stream<Product> streamAllWithReviews(int fetchSize) {
+
+        // ordered by id, so rows of a product are adjacent and its reviews are collected while scrolling
+        return entityManager.createQuery("select p from Product p left join fetch p.reviews order by p.id",
+                                         Product.class)
+                            .setHint(HINT_FETCH_SIZE, fetchSize)
+                            .setHint(HINT_READONLY, true)
+                            .getResultStream();
+    }
+}
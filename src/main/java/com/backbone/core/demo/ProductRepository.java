@@ -2,24 +2,45 @@ package com.backbone.core.demo;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductFilterRepository {
+
     Optional<Product> findById(int id);
 
     Optional<List<Product>> findByCategory(String category);
     Page<Product> findByCategory(String category, Pageable pageable);
 
+    // projections for list endpoints, select only ProductSummary columns
+    Page<ProductSummary> findSummariesBy(Pageable pageable);
+    Page<ProductSummary> findSummariesByCategory(String category, Pageable pageable);
+
+    Optional<ProductSummary> findSummaryById(int id);
+    List<ProductSummary> findSummariesByIdIn(Collection<Integer> ids);
+    Stream<ProductSummary> streamSummariesBy();
+
+    // keyset (seek) pagination on id or (category, id), Slice => no count query. see ProductCursor
+    Slice<ProductSummary> findSummariesByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+    Slice<ProductSummary> findSummariesByCategoryAndIdGreaterThanOrderByIdAsc(String category, int id,
+                                                                             Pageable pageable);
+
 
     @Query("select distinct p.category from Product p")
     Optional<List<String>> getDistinctCategories();
 
+    @Query("select p.category from Product p where p.id = :id")
+    Optional<String> findCategoryById(@Param("id") int id);
+
     /*
       if you need paging and sorting, in custom methods, and
       call w/ PageRequest(page, size, Sort)
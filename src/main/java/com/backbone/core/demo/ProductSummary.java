@@ -0,0 +1,30 @@
+package com.backbone.core.demo;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * Product header for list endpoints. ProductRepository selects only these columns,
+ * so no description, reviews or links are loaded or serialized.
+ */
+@Value
+public class ProductSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    int id;
+    String title;
+    String subTitle;
+    String brand;
+    int rating;
+    String category;
+    String shortDescription;
+    int version;
+
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(product.getId(), product.getTitle(), product.getSubTitle(), product.getBrand(),
+                                  product.getRating(), product.getCategory(), product.getShortDescription(),
+                                  product.getVersion());
+    }
+}
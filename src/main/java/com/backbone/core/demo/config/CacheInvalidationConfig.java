@@ -0,0 +1,22 @@
+package com.backbone.core.demo.config;
+
+import com.backbone.core.demo.service.InvalidationTransport;
+import com.backbone.core.demo.service.LoopbackInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transports of CacheInvalidationBus, selected by product.cache.invalidation.transport
+ * Add a new transport (such as redis pub/sub, kafka) as another bean w/ its own value.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.invalidation.transport", havingValue = "loopback",
+                           matchIfMissing = true)
+    public InvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackInvalidationTransport();
+    }
+}
@@ -0,0 +1,83 @@
+package com.backbone.core.demo.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times @Cacheable methods into cache.load of their cache.
+ *
+ * Runs inside caching advice (see @EnableCaching order in CoreServiceApplication),
+ * so only misses, which actually load, are timed. Calls whose condition bypasses the cache
+ * (such as !@productCatalog.enabled) load nothing into it, so they are not timed.
+ * Conditions are evaluated w/ method parameters and bean references, #root is not supported.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CacheLoadTimer implements BeanFactoryAware {
+
+    private final CacheMetrics cacheMetrics;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> conditions = new ConcurrentHashMap<>();
+
+    private BeanFactoryResolver beanResolver;
+
+    public CacheLoadTimer(CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        beanResolver = new BeanFactoryResolver(beanFactory);
+    }
+
+    @Around("@annotation(cacheable)")
+    public Object time(ProceedingJoinPoint joinPoint, Cacheable cacheable) throws Throwable {
+        if (!cached(joinPoint, cacheable))
+            return joinPoint.proceed();
+
+        String[] caches = cacheable.cacheNames().length > 0 ? cacheable.cacheNames() : cacheable.value();
+
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            cacheMetrics.loadTimer(caches[0]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean cached(ProceedingJoinPoint joinPoint, Cacheable cacheable) {
+        if (cacheable.condition().isEmpty())
+            return true;
+
+        MethodBasedEvaluationContext context =
+                new MethodBasedEvaluationContext(joinPoint.getTarget(),
+                                                 ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                                                 joinPoint.getArgs(), parameterNames);
+        context.setBeanResolver(beanResolver);
+
+        return Boolean.TRUE.equals(conditions.computeIfAbsent(cacheable.condition(), parser::parseExpression)
+                                             .getValue(context, Boolean.class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.backbone.core.demo.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.cache.CacheManager;
+
+/**
+ * Per cache meters for every cache in config/ehcache.xml, new ones included. see /actuator/metrics
+ *
+ * Hits, misses, puts, removals and evictions come w/ actuator's cache metrics (cache.gets, cache.puts ...),
+ * from jsr107 statistics enabled in ehcache.xml. This adds what they lack:
+ *
+ * - cache.expirations
+ * - cache.tier.entries, cache.tier.bytes: occupancy of each tier (OnHeap, OffHeap)
+ * - cache.load: time spent to load a missing value, see CacheLoadTimer
+ */
+@Component
+@Slf4j
+public class CacheMetrics {
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry registry;
+
+    public CacheMetrics(CacheManager cacheManager, MeterRegistry registry) {
+        this.cacheManager = cacheManager;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void bind() {
+        for (String cache : cacheManager.getCacheNames()) {
+            loadTimer(cache);
+
+            CacheStatistics statistics = statistics(cache);
+            if (statistics != null)
+                bind(cache, statistics);
+        }
+    }
+
+    public Timer loadTimer(String cache) {
+        return Timer.builder("cache.load")
+                    .description("time spent to load a missing value")
+                    .tag("cache", cache)
+                    .register(registry);
+    }
+
+    private void bind(String cache, CacheStatistics statistics) {
+        FunctionCounter.builder("cache.expirations", statistics, CacheStatistics::getCacheExpirations)
+                       .tag("cache", cache)
+                       .register(registry);
+
+        statistics.getTierStatistics().forEach((tier, tierStatistics) -> {
+
+            Gauge.builder("cache.tier.entries", tierStatistics, TierStatistics::getMappings)
+                 .tags("cache", cache, "tier", tier)
+                 .strongReference(true)
+                 .register(registry);
+
+            // -1 for tiers sized by entries (heap)
+            if (tierStatistics.getOccupiedByteSize() >= 0)
+                Gauge.builder("cache.tier.bytes", tierStatistics, TierStatistics::getOccupiedByteSize)
+                     .tags("cache", cache, "tier", tier)
+                     .baseUnit("bytes")
+                     .strongReference(true)
+                     .register(registry);
+        });
+    }
+
+    // ehcache cache behind jcache one (jsr107 unwrap), its statistics are read from the cache itself
+    private CacheStatistics statistics(String cache) {
+        try {
+            org.ehcache.Cache<?, ?> ehcache = cacheManager.getCache(cache).unwrap(org.ehcache.Cache.class);
+
+            return new DefaultCacheStatistics((InternalCache<?, ?>) ehcache);
+
+        } catch (RuntimeException e) {
+            log.warn("No ehcache statistics [cache:{}], its tier metrics are disabled : {}", cache, e.getMessage());
+
+            return null;
+        }
+    }
+}
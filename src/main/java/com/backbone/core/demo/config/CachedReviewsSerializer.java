@@ -0,0 +1,44 @@
+package com.backbone.core.demo.config;
+
+import com.backbone.core.demo.service.CachedReviews;
+import org.ehcache.spi.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ehcache serializer of reviews cache (reviews of a product w/ load time, see ReviewCache),
+ * see CompactCodec for the format.
+ * Fields in order: loadedAt,
+ *                  reviews (id, userName, productId, title, rating, isVerifiedPurchase, isHelpful, isAbuse, description)
+ */
+public class CachedReviewsSerializer implements Serializer<CachedReviews> {
+
+    private static final int FORMAT = 1;
+
+    public CachedReviewsSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    public ByteBuffer serialize(CachedReviews cached) {
+        return new CompactCodec.Writer()
+                .writeByte(FORMAT)
+                .writeLong(cached.getLoadedAt())
+                .writeReviews(cached.getReviews())
+                .toByteBuffer();
+    }
+
+    @Override
+    public CachedReviews read(ByteBuffer buffer) {
+        CompactCodec.Reader reader = new CompactCodec.Reader(buffer);
+        reader.expectFormat(FORMAT);
+
+        long loadedAt = reader.readLong();
+
+        return new CachedReviews(reader.readReviews(), loadedAt);
+    }
+
+    @Override
+    public boolean equals(CachedReviews cached, ByteBuffer buffer) {
+        return cached.equals(read(buffer));
+    }
+}
@@ -0,0 +1,189 @@
+package com.backbone.core.demo.config;
+
+import com.backbone.core.demo.Review;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Field-ordered binary format of cache serializers. No field names, no class descriptors:
+ *
+ * - int/long as zigzag varint (1 byte for small values)
+ * - string as varint (utf-8 length + 1, 0 = null) then utf-8 bytes
+ * - list as varint (size + 1, 0 = null) then elements
+ *
+ * Each serializer writes a format byte first, so a new field means a new format.
+ */
+final class CompactCodec {
+
+    private CompactCodec() {
+    }
+
+    static class Writer {
+
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        Writer writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+
+            return this;
+        }
+
+        Writer writeInt(int value) {
+            return writeLong(value);
+        }
+
+        Writer writeLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+
+            while ((zigzag & ~0x7FL) != 0) {
+                writeByte((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+
+            return writeByte((int) zigzag);
+        }
+
+        Writer writeBoolean(boolean value) {
+            return writeByte(value ? 1 : 0);
+        }
+
+        Writer writeString(String value) {
+            if (value == null)
+                return writeInt(0);
+
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+
+            writeInt(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+
+            return this;
+        }
+
+        // null and empty are different, size + 1 is written
+        Writer writeSize(List<?> list) {
+            return writeInt(list == null ? 0 : list.size() + 1);
+        }
+
+        Writer writeReviews(List<Review> reviews) {
+            writeSize(reviews);
+
+            if (reviews != null)
+                for (Review review : reviews)
+                    writeInt(review.getId())
+                            .writeString(review.getUserName())
+                            .writeInt(review.getProductId())
+                            .writeString(review.getTitle())
+                            .writeInt(review.getRating())
+                            .writeBoolean(review.isVerifiedPurchase())
+                            .writeBoolean(review.isHelpful())
+                            .writeBoolean(review.isAbuse())
+                            .writeString(review.getDescription());
+
+            return this;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(Arrays.copyOf(bytes, size));
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+        }
+    }
+
+    static class Reader {
+
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer.get() & 0xFF;
+        }
+
+        int readInt() {
+            return (int) readLong();
+        }
+
+        long readLong() {
+            long zigzag = 0;
+            int shift = 0;
+            int b;
+
+            do {
+                b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        String readString() {
+            int length = readInt() - 1;
+
+            if (length < 0)
+                return null;
+
+            byte[] utf8 = new byte[length];
+            buffer.get(utf8);
+
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        // -1 for null list
+        int readSize() {
+            return readInt() - 1;
+        }
+
+        List<Review> readReviews() {
+            int count = readSize();
+
+            if (count < 0)
+                return null;
+
+            List<Review> reviews = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                Review review = new Review();
+
+                review.setId(readInt());
+                review.setUserName(readString());
+                review.setProductId(readInt());
+                review.setTitle(readString());
+                review.setRating(readInt());
+                review.setVerifiedPurchase(readBoolean());
+                review.setHelpful(readBoolean());
+                review.setAbuse(readBoolean());
+                review.setDescription(readString());
+
+                reviews.add(review);
+            }
+
+            return reviews;
+        }
+
+        void expectFormat(int format) {
+            int actual = readByte();
+
+            if (actual != format)
+                throw new SerializerException("Unknown format: " + actual + ", expected: " + format);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.backbone.core.demo.config;
+
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled Apache HttpClient as transport of Feign clients (review-service ...), instead of HttpURLConnection,
+ * so calls reuse kept-alive connections rather than opening one each.
+ *
+ * - pool size and connection lifetime: feign.httpclient.max-connections, max-connections-per-route, time-to-live
+ * - keep-alive: as long as server's Keep-Alive header says, or keep-alive-seconds w/o it
+ * - idle eviction: connections idle for max-idle-seconds are closed in background, before server drops them
+ * - a call waits at most lease-timeout-ms for a free connection, then fails as any other call. see ReviewClient
+ * - a GET on a connection closed by server meanwhile is retried once
+ * - responses are gzip decoded here, feign.compression.* asks for them and compresses large requests
+ *
+ * Replaces spring-cloud-openfeign's own HttpClient configuration, which has no keep-alive,
+ * idle eviction or metrics, and backs off entirely once these beans exist.
+ *
+ * config: http-client.pool.keep-alive-seconds, max-idle-seconds, lease-timeout-ms
+ * metrics: httpcomponents.httpclient.pool.* (httpclient: feign), httpcomponents.httpclient.pool.lease
+ */
+@Configuration
+@ConditionalOnProperty(name = "feign.httpclient.enabled", matchIfMissing = true)
+public class FeignHttpClientConfig {
+
+    private static final String POOL = "feign";
+
+    @Value("${http-client.pool.keep-alive-seconds:20}")
+    private long keepAliveSeconds;
+
+    @Value("${http-client.pool.max-idle-seconds:10}")
+    private long maxIdleSeconds;
+
+    @Value("${http-client.pool.lease-timeout-ms:200}")
+    private int leaseTimeoutMs;
+
+    @Bean
+    public HttpClientConnectionManager feignConnectionManager(FeignHttpClientProperties properties,
+                                                              MeterRegistry registry) {
+        Timer leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+                                .description("time spent waiting for a pooled connection")
+                                .tag("httpclient", POOL)
+                                .register(registry);
+
+        TimedConnectionManager connectionManager =
+                new TimedConnectionManager(properties.getTimeToLive(), properties.getTimeToLiveUnit(), leaseTimer);
+
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL).bindTo(registry);
+
+        return connectionManager;
+    }
+
+    // closing it also shuts its connection manager down
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(HttpClientConnectionManager connectionManager,
+                                               FeignHttpClientProperties properties) {
+
+        // connect and read timeouts come from feign.client.config per call
+        RequestConfig requestConfig = RequestConfig.custom()
+                                                   .setConnectionRequestTimeout(leaseTimeoutMs)
+                                                   .setConnectTimeout(properties.getConnectionTimeout())
+                                                   .setRedirectsEnabled(properties.isFollowRedirects())
+                                                   .build();
+
+        return HttpClientBuilder.create()
+                                .setConnectionManager(connectionManager)
+                                .setDefaultRequestConfig(requestConfig)
+                                .setKeepAliveStrategy(keepAliveStrategy())
+                                .setRetryHandler(staleConnectionRetry())
+                                .evictExpiredConnections()
+                                .evictIdleConnections(maxIdleSeconds, TimeUnit.SECONDS)
+                                .disableCookieManagement()
+                                .build();
+    }
+
+    @Bean
+    public Client feignClient(CloseableHttpClient feignHttpClient) {
+        return new ApacheHttpClient(feignHttpClient);
+    }
+
+    // a kept-alive connection the server has just closed fails w/o response, GETs retry once on a new one.
+    // default retry handler skips them, feign sends every request w/ a (maybe empty) body
+    private HttpRequestRetryHandler staleConnectionRetry() {
+        return (exception, executionCount, context) ->
+                executionCount == 1
+                && exception instanceof NoHttpResponseException
+                && "GET".equals(HttpClientContext.adapt(context).getRequest().getRequestLine().getMethod());
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+
+            return keepAlive > 0 ? keepAlive : keepAliveSeconds * 1000;
+        };
+    }
+
+    /**
+     * Pool that times each wait for a connection into lease timer, timed out ones included.
+     */
+    static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private final Timer leaseTimer;
+
+        TimedConnectionManager(long timeToLive, TimeUnit timeToLiveUnit, Timer leaseTimer) {
+            super(timeToLive, timeToLiveUnit);
+
+            this.leaseTimer = leaseTimer;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout, timeUnit);
+                    } finally {
+                        leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
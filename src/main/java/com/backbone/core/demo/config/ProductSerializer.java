@@ -0,0 +1,78 @@
+package com.backbone.core.demo.config;
+
+import com.backbone.core.demo.Product;
+import org.ehcache.spi.serialization.Serializer;
+import org.springframework.hateoas.Link;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Ehcache serializer of product cache, see CompactCodec for the format.
+ * Fields in order: id, category, title, subTitle, brand, rating, shortDescription, description,
+ * version, reviews, links (rel, href)
+ */
+public class ProductSerializer implements Serializer<Product> {
+
+    private static final int FORMAT = 2;
+
+    public ProductSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    public ByteBuffer serialize(Product product) {
+        List<Link> links = product.getLinks().toList();
+
+        CompactCodec.Writer writer = new CompactCodec.Writer()
+                .writeByte(FORMAT)
+                .writeInt(product.getId())
+                .writeString(product.getCategory())
+                .writeString(product.getTitle())
+                .writeString(product.getSubTitle())
+                .writeString(product.getBrand())
+                .writeInt(product.getRating())
+                .writeString(product.getShortDescription())
+                .writeString(product.getDescription())
+                .writeInt(product.getVersion())
+                .writeReviews(product.getReviews())
+                .writeInt(links.size());
+
+        for (Link link : links)
+            writer.writeString(link.getRel().value())
+                  .writeString(link.getHref());
+
+        return writer.toByteBuffer();
+    }
+
+    @Override
+    public Product read(ByteBuffer buffer) {
+        CompactCodec.Reader reader = new CompactCodec.Reader(buffer);
+        reader.expectFormat(FORMAT);
+
+        Product product = new Product();
+
+        product.setId(reader.readInt());
+        product.setCategory(reader.readString());
+        product.setTitle(reader.readString());
+        product.setSubTitle(reader.readString());
+        product.setBrand(reader.readString());
+        product.setRating(reader.readInt());
+        product.setShortDescription(reader.readString());
+        product.setDescription(reader.readString());
+        product.setVersion(reader.readInt());
+        product.setReviews(reader.readReviews());
+
+        int links = reader.readInt();
+        for (int i = 0; i < links; i++) {
+            String rel = reader.readString();
+            product.add(Link.of(reader.readString(), rel));
+        }
+
+        return product;
+    }
+
+    @Override
+    public boolean equals(Product product, ByteBuffer buffer) {
+        return product.equals(read(buffer));
+    }
+}
@@ -0,0 +1,106 @@
+package com.backbone.core.demo.config;
+
+import com.backbone.core.demo.ProductSummary;
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+import org.springframework.data.domain.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ehcache serializer of products and productsByCategory caches (Page of ProductSummary),
+ * see CompactCodec for the format.
+ * Fields in order: page, size (0 = unpaged), sort orders (property, direction), total, content
+ */
+public class ProductSummaryPageSerializer implements Serializer<Page<?>> {
+
+    private static final int FORMAT = 2;
+
+    public ProductSummaryPageSerializer(ClassLoader classLoader) {
+    }
+
+    @Override
+    public ByteBuffer serialize(Page<?> page) {
+        CompactCodec.Writer writer = new CompactCodec.Writer().writeByte(FORMAT);
+
+        Pageable pageable = page.getPageable();
+
+        if (pageable.isPaged())
+            writer.writeInt(pageable.getPageNumber())
+                  .writeInt(pageable.getPageSize());
+        else
+            writer.writeInt(0)
+                  .writeInt(0);
+
+        List<Sort.Order> orders = page.getSort().toList();
+        writer.writeInt(orders.size());
+
+        for (Sort.Order order : orders)
+            writer.writeString(order.getProperty())
+                  .writeBoolean(order.isAscending());
+
+        writer.writeLong(page.getTotalElements())
+              .writeInt(page.getNumberOfElements());
+
+        for (Object item : page.getContent()) {
+            if (!(item instanceof ProductSummary))
+                throw new SerializerException("Not a ProductSummary: " + item.getClass());
+
+            ProductSummary summary = (ProductSummary) item;
+
+            writer.writeInt(summary.getId())
+                  .writeString(summary.getTitle())
+                  .writeString(summary.getSubTitle())
+                  .writeString(summary.getBrand())
+                  .writeInt(summary.getRating())
+                  .writeString(summary.getCategory())
+                  .writeString(summary.getShortDescription())
+                  .writeInt(summary.getVersion());
+        }
+
+        return writer.toByteBuffer();
+    }
+
+    @Override
+    public Page<?> read(ByteBuffer buffer) {
+        CompactCodec.Reader reader = new CompactCodec.Reader(buffer);
+        reader.expectFormat(FORMAT);
+
+        int pageNumber = reader.readInt();
+        int pageSize = reader.readInt();
+
+        int orderCount = reader.readInt();
+        List<Sort.Order> orders = new ArrayList<>(orderCount);
+
+        for (int i = 0; i < orderCount; i++) {
+            String property = reader.readString();
+            orders.add(reader.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+        }
+
+        long total = reader.readLong();
+        int count = reader.readInt();
+        List<ProductSummary> content = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+            content.add(new ProductSummary(reader.readInt(),
+                                           reader.readString(),
+                                           reader.readString(),
+                                           reader.readString(),
+                                           reader.readInt(),
+                                           reader.readString(),
+                                           reader.readString(),
+                                           reader.readInt()));
+
+        Pageable pageable = pageSize == 0 ? Pageable.unpaged()
+                                          : PageRequest.of(pageNumber, pageSize, Sort.by(orders));
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public boolean equals(Page<?> page, ByteBuffer buffer) {
+        return page.equals(read(buffer));
+    }
+}
@@ -0,0 +1,95 @@
+package com.backbone.core.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in virtual threads, for the executors that make blocking calls (review-service calls of
+ * ReviewBatchLoader, async product lookups of ProductOrchestrator), so those calls are not bound by
+ * size of thread pools.
+ *
+ * Requests stay on Tomcat's platform threads. Tomcat 9 processes a request in synchronized, which pins
+ * a virtual thread to its carrier on JDKs before 24, so they would gain nothing.
+ *
+ * Build targets Java 11, so JDK 21+ APIs are looked up at runtime. On older JDKs it logs a warning,
+ * and platform threads are used as if disabled.
+ *
+ * Blocking while holding a monitor pins a virtual thread to its carrier, so code on these threads
+ * waits w/ java.util.concurrent locks and futures instead of synchronized.
+ *
+ * config: spring.threads.virtual.enabled
+ */
+@Component
+@Slf4j
+public class VirtualThreads {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean requested;
+
+    // ofVirtual().name(prefix, 0).factory(), and Executors.newThreadPerTaskExecutor(factory). null if disabled
+    private MethodHandle ofVirtual;
+    private MethodHandle name;
+    private MethodHandle factory;
+    private MethodHandle newThreadPerTaskExecutor;
+
+    @PostConstruct
+    void init() {
+        if (!requested)
+            return;
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+            name = lookup.findVirtual(ofVirtualBuilder, "name",
+                                      MethodType.methodType(ofVirtualBuilder, String.class, long.class));
+            factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+            newThreadPerTaskExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                                                         MethodType.methodType(ExecutorService.class,
+                                                                               ThreadFactory.class));
+
+            log.info("Virtual threads enabled [java:{}]", Runtime.version());
+
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+
+            log.warn("No virtual threads on this JDK, platform threads are used [java:{}] : {}",
+                     Runtime.version(), e.toString());
+        }
+    }
+
+    public boolean isEnabled() {
+        return ofVirtual != null;
+    }
+
+    /**
+     * @param threadNamePrefix such as review-batch-, threads are numbered after it
+     * @param platform executor to use if disabled
+     * @return executor that starts a new virtual thread per task, or platform one
+     */
+    public ExecutorService executor(String threadNamePrefix, Supplier<ExecutorService> platform) {
+        if (!isEnabled())
+            return platform.get();
+
+        try {
+            Object builder = name.invoke(ofVirtual.invoke(), threadNamePrefix, 0L);
+
+            return (ExecutorService) newThreadPerTaskExecutor.invoke((ThreadFactory) factory.invoke(builder));
+
+        } catch (Throwable t) {
+            throw new IllegalStateException("Virtual thread executor [prefix:" + threadNamePrefix + "]", t);
+        }
+    }
+}
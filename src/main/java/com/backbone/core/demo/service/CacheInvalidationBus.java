@@ -0,0 +1,80 @@
+package com.backbone.core.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Applies cache invalidations of ProductService writes locally, and publishes them to other replicas
+ * through an InvalidationTransport. Invalidations of other replicas are applied as they arrive,
+ * so a write on one pod does not leave the others serving stale data until ttl.
+ *
+ * Both local and remote ones are also published in process as ProductsChangedEvent, for other derived data.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationBus {
+
+    private final ProductCacheKeys productCacheKeys;
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // hostname is shared by restarts of the same pod, so make it unique
+    private final String origin;
+
+    public CacheInvalidationBus(ProductCacheKeys productCacheKeys,
+                                InvalidationTransport transport,
+                                InstanceService instanceService,
+                                ApplicationEventPublisher eventPublisher) {
+        this.productCacheKeys = productCacheKeys;
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+        this.origin = instanceService.getHostName() + "-" + UUID.randomUUID();
+
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * Invalidate given products, their categories (null ones are skipped) and listings,
+     * here and on other replicas.
+     */
+    public void invalidate(Collection<Integer> productIds, Collection<String> categories) {
+        Set<String> nonNullCategories = categories.stream()
+                                                  .filter(Objects::nonNull)
+                                                  .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        productCacheKeys.invalidate(productIds, nonNullCategories);
+        productsChanged(productIds);
+
+        try {
+            transport.publish(new InvalidationEvent(origin, new LinkedHashSet<>(productIds), nonNullCategories));
+        } catch (Exception e) {
+            // local write is done, other replicas fall back to ttl
+            log.error("Publish failed [ids:{}, categories:{}] : {}", productIds, nonNullCategories, e.getMessage());
+        }
+    }
+
+    private void receive(InvalidationEvent event) {
+        if (origin.equals(event.getOrigin()))
+            return;
+
+        log.info("Invalidate [origin:{}, ids:{}, categories:{}]", event.getOrigin()
+                                                                , event.getProductIds()
+                                                                , event.getCategories());
+
+        productCacheKeys.invalidate(event.getProductIds(), event.getCategories());
+        productsChanged(event.getProductIds());
+    }
+
+    private void productsChanged(Collection<Integer> productIds) {
+        if (!productIds.isEmpty())
+            eventPublisher.publishEvent(new ProductsChangedEvent(new LinkedHashSet<>(productIds)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Review;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Reviews of a product in reviews cache, w/ the time they were loaded (epoch millis of ReviewCache's clock). see ReviewCache
+ */
+@Value
+public class CachedReviews implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    List<Review> reviews;
+    long loadedAt;
+}
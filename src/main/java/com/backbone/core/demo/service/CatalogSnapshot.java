@@ -0,0 +1,176 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductSummary;
+import org.springframework.data.domain.*;
+
+import java.util.*;
+
+/**
+ * Immutable copy of the whole catalog, for reads w/o db, Hibernate or locks. see ProductCatalog
+ *
+ * - products by id in an open-addressing int map (linear probing, no boxing)
+ * - summaries in id order, so pages and cursors are array slices / binary searches
+ * - per category, positions of its summaries, in id order too
+ *
+ * Changes make a new snapshot (copy-on-write), the old one stays valid for its readers.
+ * Products are shared by snapshots, don't modify them: copy first.
+ */
+public final class CatalogSnapshot {
+
+    // ids start at 1, so 0 marks an empty slot
+    private static final int EMPTY = 0;
+
+    private final int[] keys;
+    private final Product[] values;
+    private final int mask;
+
+    private final int[] ids;
+    private final ProductSummary[] summaries;
+
+    private final Map<String, int[]> categoryPositions;
+
+    private CatalogSnapshot(Collection<Product> products) {
+        int capacity = Integer.highestOneBit(Math.max(2, products.size() * 2 - 1)) << 1;
+
+        keys = new int[capacity];
+        values = new Product[capacity];
+        mask = capacity - 1;
+
+        for (Product product : products) {
+            int slot = slot(product.getId());
+
+            keys[slot] = product.getId();
+            values[slot] = product;
+        }
+
+        Product[] sorted = products.toArray(new Product[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(Product::getId));
+
+        ids = new int[sorted.length];
+        summaries = new ProductSummary[sorted.length];
+
+        Map<String, List<Integer>> positions = new HashMap<>();
+
+        for (int i = 0; i < sorted.length; i++) {
+            Product product = sorted[i];
+
+            ids[i] = product.getId();
+            summaries[i] = ProductSummary.of(product);
+
+            positions.computeIfAbsent(product.getCategory(), c -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, int[]> byCategory = new HashMap<>();
+        positions.forEach((category, list) -> byCategory.put(category, list.stream().mapToInt(i -> i).toArray()));
+
+        categoryPositions = byCategory;
+    }
+
+    public static CatalogSnapshot of(Collection<Product> products) {
+        return new CatalogSnapshot(products);
+    }
+
+    /**
+     * New snapshot w/ given products added or replaced, and removed ids dropped.
+     */
+    public CatalogSnapshot with(Collection<Product> changed, Collection<Integer> removed) {
+        Map<Integer, Product> products = new HashMap<>(ids.length + changed.size());
+
+        for (Product value : values)
+            if (value != null)
+                products.put(value.getId(), value);
+
+        removed.forEach(products::remove);
+        changed.forEach(product -> products.put(product.getId(), product));
+
+        return new CatalogSnapshot(products.values());
+    }
+
+    public Product get(int id) {
+        if (id == EMPTY)
+            return null;
+
+        for (int slot = hash(id) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (keys[slot] == id)
+                return values[slot];
+
+        return null;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public Page<ProductSummary> page(Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+
+        return new PageImpl<>(Arrays.asList(summaries).subList(from, to), pageable, ids.length);
+    }
+
+    public Page<ProductSummary> page(String category, Pageable pageable) {
+        int[] positions = categoryPositions.getOrDefault(category, new int[0]);
+
+        int from = (int) Math.min(pageable.getOffset(), positions.length);
+        int to = Math.min(from + pageable.getPageSize(), positions.length);
+
+        return new PageImpl<>(summaries(positions, from, to), pageable, positions.length);
+    }
+
+    // keyset pagination, summaries w/ id > after
+    public Slice<ProductSummary> after(int after, int size) {
+        int from = Arrays.binarySearch(ids, after + 1);
+        from = from < 0 ? -from - 1 : from;
+
+        int to = Math.min(from + size, ids.length);
+
+        return new SliceImpl<>(Arrays.asList(summaries).subList(from, to), PageRequest.of(0, size), to < ids.length);
+    }
+
+    public Slice<ProductSummary> after(String category, int after, int size) {
+        int[] positions = categoryPositions.getOrDefault(category, new int[0]);
+
+        // positions are in id order, so is their first one w/ id > after
+        int low = 0;
+        int high = positions.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (ids[positions[mid]] <= after)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        int to = Math.min(low + size, positions.length);
+
+        return new SliceImpl<>(summaries(positions, low, to), PageRequest.of(0, size), to < positions.length);
+    }
+
+    private List<ProductSummary> summaries(int[] positions, int from, int to) {
+        List<ProductSummary> result = new ArrayList<>(to - from);
+
+        for (int i = from; i < to; i++)
+            result.add(summaries[positions[i]]);
+
+        return result;
+    }
+
+    private int slot(int id) {
+        int slot = hash(id) & mask;
+
+        while (keys[slot] != EMPTY && keys[slot] != id)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    // ids are sequential, spread them over the table
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,38 @@
+package com.backbone.core.demo.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ids of ProductsChangedEvents that arrive while an in-memory view (ProductSearchIndex ...) is built on startup.
+ * Changes of other replicas may arrive before it is built, its scan may or may not have seen them,
+ * so they are collected here, and reapplied once built.
+ */
+class ChangesDuringBuild {
+
+    // null once built
+    private Set<Integer> pending = new HashSet<>();
+
+    /**
+     * @return true if still building, ids are kept to reapply later
+     */
+    synchronized boolean defer(Collection<Integer> productIds) {
+        if (pending == null)
+            return false;
+
+        pending.addAll(productIds);
+
+        return true;
+    }
+
+    /**
+     * @return ids changed while building, later changes are not deferred
+     */
+    synchronized Set<Integer> built() {
+        Set<Integer> changed = pending;
+        pending = null;
+
+        return changed;
+    }
+}
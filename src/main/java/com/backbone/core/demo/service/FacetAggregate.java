@@ -0,0 +1,211 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.ProductCategory;
+import com.backbone.core.demo.ProductRepository;
+import com.backbone.core.demo.ProductSummary;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Product counts per (category, brand, rating), maintained in memory, so facet counts and the category
+ * directory never need a GROUP BY on product. Built once on startup, before web server accepts requests,
+ * then updated per ProductsChangedEvent. Changes during build are applied once built, see ChangesDuringBuild
+ *
+ * Facets are disjunctive: counts of a facet ignore its own filter (brand counts are for the category
+ * and minRating filters only...), so other values of a filtered facet are still listed w/ their counts.
+ */
+@Service
+@Slf4j
+public class FacetAggregate implements SmartInitializingSingleton {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final Map<Cell, Long> counts = new HashMap<>();
+
+    // product id => its cell, to move it on change
+    private final Map<Integer, Cell> cells = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ChangesDuringBuild changesDuringBuild = new ChangesDuringBuild();
+
+    // after all beans are ready, and before web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        build();
+
+        Set<Integer> changed = changesDuringBuild.built();
+
+        if (!changed.isEmpty())
+            apply(changed);
+    }
+
+    void build() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProductSummary> products = productRepository.streamSummariesBy()) {
+                products.forEach(this::put);
+            }
+        });
+
+        log.info("Facets built [products:{}, cells:{}]", cells.size(), counts.size());
+    }
+
+    @EventListener
+    void onProductsChanged(ProductsChangedEvent event) {
+        if (!changesDuringBuild.defer(event.getProductIds()))
+            apply(event.getProductIds());
+    }
+
+    private void apply(Set<Integer> productIds) {
+        Set<Integer> removed = new HashSet<>(productIds);
+
+        for (ProductSummary product : productRepository.findSummariesByIdIn(productIds)) {
+            put(product);
+
+            removed.remove(product.getId());
+        }
+
+        removed.forEach(this::remove);
+    }
+
+    /**
+     * @param category, brand, minRating filters, null ones are skipped
+     */
+    public Facets facets(String category, String brand, Integer minRating) {
+
+        Map<String, Long> categories = new TreeMap<>();
+        Map<String, Long> brands = new TreeMap<>();
+        Map<Integer, Long> ratings = new TreeMap<>();
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Cell, Long> entry : counts.entrySet()) {
+                Cell cell = entry.getKey();
+                long count = entry.getValue();
+
+                boolean inCategory = category == null || category.equals(cell.category);
+                boolean inBrand = brand == null || brand.equals(cell.brand);
+                boolean inRating = minRating == null || cell.rating >= minRating;
+
+                if (inBrand && inRating)
+                    categories.merge(cell.category, count, Long::sum);
+
+                if (inCategory && inRating)
+                    brands.merge(cell.brand, count, Long::sum);
+
+                if (inCategory && inBrand)
+                    ratings.merge(cell.rating, count, Long::sum);
+
+                if (inCategory && inBrand && inRating)
+                    total += count;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new Facets(total, categories, brands, ratings);
+    }
+
+    /**
+     * Category directory, ordered by name
+     *
+     * @param topBrands max brands per category
+     */
+    public List<ProductCategory> categories(int topBrands) {
+
+        Map<String, Map<String, Long>> brandsByCategory = new TreeMap<>();
+
+        lock.readLock().lock();
+        try {
+            counts.forEach((cell, count) -> brandsByCategory.computeIfAbsent(cell.category, c -> new HashMap<>())
+                                                            .merge(cell.brand, count, Long::sum));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductCategory> categories = new ArrayList<>(brandsByCategory.size());
+
+        brandsByCategory.forEach((category, brands) -> {
+            Map<String, Long> top = new LinkedHashMap<>();
+
+            brands.entrySet()
+                  .stream()
+                  .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                                   .thenComparing(Map.Entry.comparingByKey()))
+                  .limit(topBrands)
+                  .forEach(brand -> top.put(brand.getKey(), brand.getValue()));
+
+            long count = brands.values().stream().mapToLong(Long::longValue).sum();
+
+            categories.add(new ProductCategory(category, count, top));
+        });
+
+        return categories;
+    }
+
+    private void put(ProductSummary product) {
+        Cell cell = new Cell(product.getCategory(), product.getBrand(), product.getRating());
+
+        lock.writeLock().lock();
+        try {
+            Cell old = cells.put(product.getId(), cell);
+
+            if (old != null)
+                decrement(old);
+
+            counts.merge(cell, 1L, Long::sum);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Cell old = cells.remove(id);
+
+            if (old != null)
+                decrement(old);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void decrement(Cell cell) {
+        counts.computeIfPresent(cell, (c, count) -> count == 1 ? null : count - 1);
+    }
+
+    @Value
+    private static class Cell {
+        String category;
+        String brand;
+        int rating;
+    }
+
+    @Value
+    public static class Facets {
+        long total;
+        Map<String, Long> category;
+        Map<String, Long> brand;
+        Map<Integer, Long> rating;
+    }
+}
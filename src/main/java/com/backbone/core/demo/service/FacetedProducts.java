@@ -0,0 +1,15 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.ProductSummary;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A page of filtered products, w/ facet counts (and total) of the filter. see FacetAggregate
+ */
+@Value
+public class FacetedProducts {
+    List<ProductSummary> products;
+    FacetAggregate.Facets facets;
+}
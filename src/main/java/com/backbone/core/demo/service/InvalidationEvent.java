@@ -0,0 +1,20 @@
+package com.backbone.core.demo.service;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * What a write invalidated: products, their categories and (always) listings.
+ * Origin is the replica that made the write, see CacheInvalidationBus.
+ */
+@Value
+public class InvalidationEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    String origin;
+    Set<Integer> productIds;
+    Set<String> categories;
+}
@@ -0,0 +1,17 @@
+package com.backbone.core.demo.service;
+
+import java.util.function.Consumer;
+
+/**
+ * SPI of CacheInvalidationBus, carries InvalidationEvents between replicas.
+ *
+ * Implementations deliver every published event to subscribers of all replicas,
+ * the publishing one included. At-most-once is fine, ttl covers a lost event.
+ * Select w/ product.cache.invalidation.transport
+ */
+public interface InvalidationTransport {
+
+    void publish(InvalidationEvent event);
+
+    void subscribe(Consumer<InvalidationEvent> subscriber);
+}
@@ -0,0 +1,90 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductRepository;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates products in chunks of product.batch.chunk-size, one transaction per chunk, so a failure rolls back
+ * only its chunk. Inserts of a chunk are sent as jdbc batches (see product_seq and hibernate.jdbc.batch_size).
+ * Ids and versions of given products are ignored, they are always new ones.
+ *
+ * Caches are invalidated once per Batch, for all products it saved, when it is closed.
+ * Used by bulk create (ProductService.saveProducts) and ProductImporter.
+ *
+ * config: product.batch.chunk-size
+ */
+@Service
+public class ProductBatchWriter {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Getter
+    @Value("${product.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Batch open() {
+        return new Batch();
+    }
+
+    public class Batch implements AutoCloseable {
+
+        private final List<Integer> productIds = new ArrayList<>();
+        private final Set<String> categories = new HashSet<>();
+
+        private Batch() {
+        }
+
+        /**
+         * @param chunk at most chunkSize products, saved in one transaction
+         * @return saved products
+         * @throws RuntimeException if chunk is rolled back, batch can still go on w/ other chunks
+         */
+        public List<Product> save(List<Product> chunk) {
+            chunk.forEach(product -> {
+                product.setId(0);
+                product.setVersion(0);
+            });
+
+            List<Product> saved = transactionTemplate.execute(status -> productRepository.saveAll(chunk));
+
+            saved.forEach(product -> {
+                productIds.add(product.getId());
+                categories.add(product.getCategory());
+            });
+
+            return saved;
+        }
+
+        @Override
+        public void close() {
+            if (!productIds.isEmpty())
+                cacheInvalidationBus.invalidate(productIds, categories);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backbone.core.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache keys of ProductService caches, used from @Cacheable key expressions
+ * such as key = "@productCacheKeys.productsByCategory(#category, #page, #size)"
+ *
+ * Keys carry a version (per product) or a generation (per category, and one for all listings).
+ * Invalidating bumps them, so entries under the old key are never hit again and leave
+ * by ttl or by eviction. A write costs O(1), other keys stay warm.
+ */
+@Component
+public class ProductCacheKeys {
+
+    private final ConcurrentMap<Integer, AtomicLong> productVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> categoryGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong listingGeneration = new AtomicLong();
+
+    /**
+     * @throws NumberFormatException if id is not a number, same as the lookup itself
+     */
+    public String product(String id) {
+        int productId = Integer.parseInt(id);
+
+        return productId + ":" + current(productVersions.get(productId));
+    }
+
+    public String products(String page, String size) {
+        return listingGeneration.get() + ":" + page + ":" + size;
+    }
+
+    // category is the last part, it may contain ':'
+    public String productsByCategory(String category, String page, String size) {
+        return current(categoryGenerations.get(category)) + ":" + page + ":" + size + ":" + category;
+    }
+
+    /**
+     * Invalidate given products, all cached pages of given categories, and all listings.
+     * Null categories are skipped. Writes go through CacheInvalidationBus, so other replicas do the same.
+     */
+    public void invalidate(Collection<Integer> productIds, Collection<String> categories) {
+        productIds.forEach(id -> bump(productVersions, id));
+
+        categories.stream()
+                  .filter(category -> category != null)
+                  .forEach(category -> bump(categoryGenerations, category));
+
+        listingGeneration.incrementAndGet();
+    }
+
+    private static <K> void bump(ConcurrentMap<K, AtomicLong> generations, K key) {
+        generations.computeIfAbsent(key, k -> new AtomicLong())
+                   .incrementAndGet();
+    }
+
+    private static long current(AtomicLong generation) {
+        return generation == null ? 0 : generation.get();
+    }
+}
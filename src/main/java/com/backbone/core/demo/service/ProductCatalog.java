@@ -0,0 +1,129 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional read model: when product.snapshot.enabled, whole catalog is loaded into a CatalogSnapshot on startup,
+ * before web server accepts requests, and ProductService reads are served from it instead of caches and db.
+ * Changes during load are applied once loaded, see ChangesDuringBuild
+ *
+ * Writes still go to db, then each ProductsChangedEvent publishes a new snapshot w/ changed products
+ * (copy-on-write), so readers never lock and see a write as soon as it is committed on this replica.
+ */
+@Service
+@Slf4j
+public class ProductCatalog implements SmartInitializingSingleton {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${product.scan.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${product.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    // null until loaded, or if disabled
+    private volatile CatalogSnapshot snapshot;
+
+    // so concurrent writes don't drop each other's snapshot. not synchronized, it waits for db
+    // and would pin virtual threads. see VirtualThreads
+    private final Lock publishLock = new ReentrantLock();
+
+    private final ChangesDuringBuild changesDuringLoad = new ChangesDuringBuild();
+
+    /**
+     * @return true if reads are served from snapshot
+     */
+    public boolean isEnabled() {
+        return snapshot != null;
+    }
+
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // after all beans are ready, and before web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!snapshotEnabled)
+            return;
+
+        load();
+
+        Set<Integer> changed = changesDuringLoad.built();
+
+        if (!changed.isEmpty())
+            publish(changed);
+    }
+
+    void load() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        List<Product> products = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> stream = productRepository.streamAllWithReviews(fetchSize)) {
+                stream.forEach(product -> {
+                    products.add(product);
+
+                    entityManager.detach(product);
+                });
+            }
+        });
+
+        snapshot = CatalogSnapshot.of(products);
+
+        log.info("Catalog snapshot loaded [products:{}]", snapshot.size());
+    }
+
+    @EventListener
+    void onProductsChanged(ProductsChangedEvent event) {
+        if (!snapshotEnabled || changesDuringLoad.defer(event.getProductIds()))
+            return;
+
+        publish(event.getProductIds());
+    }
+
+    private void publish(Set<Integer> productIds) {
+        publishLock.lock();
+        try {
+            List<Product> changed = productRepository.findAllById(productIds);
+
+            Set<Integer> removed = new HashSet<>(productIds);
+            changed.forEach(product -> removed.remove(product.getId()));
+
+            snapshot = snapshot.with(changed, removed);
+
+            log.debug("Catalog snapshot published [changed:{}, removed:{}]", changed.size(), removed.size());
+        } finally {
+            publishLock.unlock();
+        }
+    }
+}
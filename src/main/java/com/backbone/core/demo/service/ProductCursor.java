@@ -0,0 +1,39 @@
+package com.backbone.core.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination. Token holds the id of the last returned product,
+ * next page seeks right after it (where id > lastId), so no OFFSET and no COUNT.
+ *
+ * Empty token means first page.
+ */
+public final class ProductCursor {
+
+    private static final String PREFIX = "id:";
+
+    private ProductCursor() {
+    }
+
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if token is not a valid cursor
+     */
+    public static int decode(String token) {
+        if (token == null || token.isBlank())
+            return 0;
+
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+        if (!value.startsWith(PREFIX))
+            throw new IllegalArgumentException("Not a cursor: " + token);
+
+        return Integer.parseInt(value.substring(PREFIX.length()));
+    }
+}
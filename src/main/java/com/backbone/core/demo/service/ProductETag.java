@@ -0,0 +1,65 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * ETags for conditional requests (If-None-Match => 304, If-Match => 412 on conflict).
+ *
+ * - strong, of a product: "id-version-reviewsDigest", version is Product's optimistic lock
+ * - weak, of a list: W/"digest of its content", summaries carry version, so any change makes a new one
+ *
+ * Digests are SHA-256 of content's toString (all fields of lombok @Data / @Value types), not a 32 bit hashCode,
+ * so a changed content practically never keeps its ETag and gets a 304.
+ */
+public final class ProductETag {
+
+    private ProductETag() {
+    }
+
+    public static String strong(Product product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "-" + digest(product.getReviews()) + "\"";
+    }
+
+    public static String weak(Object content) {
+        return "W/\"" + digest(content) + "\"";
+    }
+
+    // hex, so it has no - of strong ETag's parts
+    private static String digest(Object content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(Objects.toString(content).getBytes(StandardCharsets.UTF_8));
+
+            return String.format("%064x", new BigInteger(1, hash));
+
+        } catch (NoSuchAlgorithmException e) {
+            // every JDK has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param ifMatch strong ETag of product, or * (any)
+     * @return expected version, null for *
+     * @throws IllegalArgumentException if not a product ETag
+     */
+    public static Integer version(String ifMatch) {
+        String etag = ifMatch.trim();
+
+        if (etag.equals("*"))
+            return null;
+
+        String[] parts = etag.replace("\"", "").split("-");
+
+        if (!etag.startsWith("\"") || parts.length != 3)
+            throw new IllegalArgumentException("Not a product ETag: " + ifMatch);
+
+        return Integer.valueOf(parts[1]);
+    }
+}
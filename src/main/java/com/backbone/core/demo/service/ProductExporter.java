@@ -0,0 +1,78 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole catalog as NDJSON (a JSON product per line), in constant memory.
+ *
+ * Products are read w/ their reviews over a cursor (see ProductRepository.streamAllWithReviews),
+ * detached as soon as they are written, and the output is flushed every flush-rows products.
+ * Not cached, a full scan per call.
+ *
+ * config: product.scan.fetch-size, product.export.flush-rows
+ */
+@Service
+@Slf4j
+public class ProductExporter {
+
+    private static final byte NEW_LINE = '\n';
+
+    // rows per jdbc round trip
+    @Value("${product.scan.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${product.export.flush-rows:500}")
+    private int flushRows;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public int export(OutputStream out) {
+
+        AtomicInteger rows = new AtomicInteger();
+
+        try (Stream<Product> products = productRepository.streamAllWithReviews(fetchSize)) {
+
+            products.forEach(product -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(product));
+                    out.write(NEW_LINE);
+
+                    entityManager.detach(product);
+
+                    if (rows.incrementAndGet() % flushRows == 0)
+                        out.flush();
+
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        log.info("Exported [rows:{}]", rows.get());
+
+        return rows.get();
+    }
+}
@@ -0,0 +1,293 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Imports products from a large NDJSON or CSV feed, a product per line. Ids and versions in feed are ignored.
+ *
+ * Lines are parsed as they are read from the request, and saved in chunks by ProductBatchWriter,
+ * a transaction per chunk. Reading waits while a chunk is saved, so at most a chunk is buffered.
+ * Invalid lines, and lines of a chunk that fails to save, are rejected and reported w/ their line numbers.
+ *
+ * CSV needs a header of Product fields (category,title,subTitle,brand,rating,shortDescription,description),
+ * quoted values may contain commas and "" but not new lines.
+ *
+ * Progress (accepted and rejected so far) is reported after each chunk, importProducts(in, format, out)
+ * writes it to client as NDJSON, a Progress per line, then ImportReport as last line.
+ *
+ * Caches are invalidated once, when import finishes. see ProductBatchWriter
+ */
+@Service
+@Slf4j
+public class ProductImporter {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final byte NEW_LINE = '\n';
+
+    private static final Set<String> CSV_COLUMNS = Set.of("id", "category", "title", "subTitle", "brand", "rating",
+                                                          "shortDescription", "description");
+
+    @Autowired
+    ProductBatchWriter productBatchWriter;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // rejects in report, others are only counted
+    @Value("${product.import.max-rejects:100}")
+    private int maxRejects;
+
+    public ImportReport importProducts(InputStream in, Format format) throws IOException {
+        return importProducts(in, format, progress -> { });
+    }
+
+    /**
+     * Streams progress to out, flushed after each chunk. Errors after it is started, such as an invalid CSV header,
+     * are written as last line too, as {"error": ...}
+     */
+    public void importProducts(InputStream in, Format format, OutputStream out) throws IOException {
+
+        ImportReport report;
+
+        try {
+            report = importProducts(in, format, progress -> writeLine(out, progress));
+        } catch (IllegalArgumentException | IOException e) {
+            writeLine(out, Map.of("error", String.valueOf(e.getMessage())));
+
+            return;
+        }
+
+        writeLine(out, report);
+    }
+
+    /**
+     * @param progress called after each chunk
+     */
+    public ImportReport importProducts(InputStream in, Format format, Consumer<Progress> progress) throws IOException {
+
+        ImportReport report = new ImportReport(maxRejects);
+        int chunkSize = productBatchWriter.getChunkSize();
+
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkLines = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             ProductBatchWriter.Batch batch = productBatchWriter.open()) {
+
+            String[] header = format == Format.CSV ? csvHeader(reader) : null;
+            int lineNumber = format == Format.CSV ? 1 : 0;
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+
+                if (line.isBlank())
+                    continue;
+
+                try {
+                    Product product = format == Format.CSV ? fromCsv(header, line) : fromJson(line);
+
+                    validate(product);
+
+                    chunk.add(product);
+                    chunkLines.add(lineNumber);
+                } catch (JsonProcessingException e) {
+                    report.reject(lineNumber, e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    report.reject(lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize)
+                    save(batch, chunk, chunkLines, report, progress);
+            }
+
+            save(batch, chunk, chunkLines, report, progress);
+
+        } finally {
+            log.info("Imported [accepted:{}, rejected:{}]", report.getAccepted(), report.getRejected());
+        }
+
+        return report;
+    }
+
+    private void save(ProductBatchWriter.Batch batch, List<Product> chunk, List<Integer> chunkLines,
+                      ImportReport report, Consumer<Progress> progress) {
+
+        if (chunk.isEmpty())
+            return;
+
+        try {
+            report.accepted += batch.save(chunk).size();
+
+        } catch (RuntimeException e) {
+            log.warn("Import chunk failed [lines:{}-{}] : {}",
+                     chunkLines.get(0), chunkLines.get(chunkLines.size() - 1), e.getMessage());
+
+            chunkLines.forEach(line -> report.reject(line, "chunk failed: " + e.getMessage()));
+        }
+
+        log.info("Import progress [accepted:{}, rejected:{}]", report.getAccepted(), report.getRejected());
+
+        progress.accept(new Progress(report.getAccepted(), report.getRejected()));
+
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private Product fromJson(String line) throws JsonProcessingException {
+        // id and version are reset on save
+        return objectMapper.readValue(line, Product.class);
+    }
+
+    private void writeLine(OutputStream out, Object line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write(NEW_LINE);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] csvHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+
+        if (line == null)
+            throw new IllegalArgumentException("No CSV header");
+
+        String[] header = csvValues(line).stream().map(String::trim).toArray(String[]::new);
+
+        for (String column : header)
+            if (!CSV_COLUMNS.contains(column))
+                throw new IllegalArgumentException("Unknown CSV column " + column);
+
+        return header;
+    }
+
+    private static Product fromCsv(String[] header, String line) {
+        List<String> values = csvValues(line);
+
+        if (values.size() != header.length)
+            throw new IllegalArgumentException("Expected " + header.length + " values, found " + values.size());
+
+        Product product = new Product();
+
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+
+            switch (header[i]) {
+                case "id":               break;
+                case "category":         product.setCategory(value); break;
+                case "title":            product.setTitle(value); break;
+                case "subTitle":         product.setSubTitle(value); break;
+                case "brand":            product.setBrand(value); break;
+                case "rating":           product.setRating(value == null ? 0 : Integer.parseInt(value)); break;
+                case "shortDescription": product.setShortDescription(value); break;
+                case "description":      product.setDescription(value); break;
+                default:
+                    throw new IllegalArgumentException("Unknown column " + header[i]);
+            }
+        }
+
+        return product;
+    }
+
+    // splits a CSV record, "..." quotes a value, "" in quotes is a quote
+    static List<String> csvValues(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        if (quoted)
+            throw new IllegalArgumentException("Unclosed quote");
+
+        values.add(value.toString());
+
+        return values;
+    }
+
+    // not null columns, see schema.sql
+    private static void validate(Product product) {
+        if (isBlank(product.getCategory()) || isBlank(product.getTitle())
+                || isBlank(product.getBrand()) || isBlank(product.getShortDescription()))
+            throw new IllegalArgumentException("category, title, brand and shortDescription are required");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Getter
+    public static class ImportReport {
+
+        private int accepted;
+        private int rejected;
+        private final List<Reject> rejects = new ArrayList<>();
+
+        @Getter(AccessLevel.NONE)
+        private final int maxRejects;
+
+        ImportReport(int maxRejects) {
+            this.maxRejects = maxRejects;
+        }
+
+        void reject(int line, String reason) {
+            rejected++;
+
+            if (rejects.size() < maxRejects)
+                rejects.add(new Reject(line, reason));
+        }
+    }
+
+    @lombok.Value
+    public static class Progress {
+        int accepted;
+        int rejected;
+    }
+
+    @lombok.Value
+    public static class Reject {
+        int line;
+        String reason;
+    }
+}
@@ -0,0 +1,150 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.config.VirtualThreads;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Async orchestration of getProduct.
+ *
+ * Product lookup and every enrichment (other service calls) start at the same time,
+ * each w/ its own latency budget. If an enrichment misses its budget or fails,
+ * product is returned without it, and the enrichment is listed as missing.
+ * If product lookup fails, its exception is thrown as is (NullPointerException => not found ...),
+ * if it misses its budget, TimeoutException is thrown.
+ *
+ * Lookups run on a bounded pool of product-orchestration- threads, or on a virtual thread each if enabled.
+ * see VirtualThreads. When pool and its queue are full, callers run lookups themselves (as sync mode does),
+ * so a slow dependency cannot grow the number of threads.
+ *
+ * config: product.orchestration.timeout.product-ms, product.orchestration.timeout.reviews-ms,
+ *         product.orchestration.pool-size, product.orchestration.queue-size
+ */
+@Service
+@Slf4j
+public class ProductOrchestrator {
+
+    public static final String REVIEWS = "reviews";
+
+    @Autowired
+    ProductService productService;
+
+    @Autowired
+    ReviewBatchLoader reviewBatchLoader;
+
+    @Autowired
+    VirtualThreads virtualThreads;
+
+    @Value("${product.orchestration.timeout.product-ms:1000}")
+    private long productTimeoutMs;
+
+    @Value("${product.orchestration.timeout.reviews-ms:300}")
+    private long reviewsTimeoutMs;
+
+    @Value("${product.orchestration.pool-size:16}")
+    private int poolSize;
+
+    @Value("${product.orchestration.queue-size:100}")
+    private int queueSize;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        executor = virtualThreads.executor("product-orchestration-vt-", () ->
+                new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                                       new ArrayBlockingQueue<>(queueSize),
+                                       new CustomizableThreadFactory("product-orchestration-"),
+                                       new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+
+    /**
+     * @throws TimeoutException if product lookup misses product.orchestration.timeout.product-ms
+     */
+    public EnrichedProduct getProduct(String id) throws TimeoutException {
+
+        CompletableFuture<Optional<Product>> product =
+                CompletableFuture.supplyAsync(() -> productService.getProduct(id), executor)
+                                 .orTimeout(productTimeoutMs, TimeUnit.MILLISECONDS);
+
+        // call other-services, if necessary
+        CompletableFuture<Optional<List<Review>>> reviews =
+                enrichment(REVIEWS, id, reviewBatchLoader.load(id), reviewsTimeoutMs);
+
+        Product result = join(product).map(Product::copy)
+                                      .orElseThrow(() -> new NullPointerException("No record"));
+
+        Set<String> missing = new TreeSet<>();
+
+        reviews.join()
+               .ifPresentOrElse(result::setReviews, () -> missing.add(REVIEWS));
+
+        return new EnrichedProduct(result, missing);
+    }
+
+    // never fails, empty if enrichment misses its budget or fails
+    private <T> CompletableFuture<Optional<T>> enrichment(String name, String id,
+                                                         CompletableFuture<T> call, long timeoutMs) {
+
+        // derived future, so timeout does not complete the shared call
+        return call.thenApply(Optional::of)
+                   .completeOnTimeout(Optional.empty(), timeoutMs, TimeUnit.MILLISECONDS)
+                   .exceptionally(e -> {
+                       log.warn("Enrichment failed [{}, id:{}] : {}", name, id, e.getMessage());
+
+                       return Optional.empty();
+                   });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws TimeoutException {
+        try {
+            return future.join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ce.getCause();
+            if (ce.getCause() instanceof TimeoutException)
+                throw (TimeoutException) ce.getCause();
+
+            throw ce;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Product w/ enrichments. Missing holds names of enrichments that could not make it.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class EnrichedProduct {
+
+        private final Product product;
+        private final Set<String> missing;
+
+        public boolean isPartial() {
+            return !missing.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductRepository;
+import com.backbone.core.demo.ProductSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index for full-text search on title, subTitle, brand, shortDescription, description.
+ *
+ * Built once on startup, before web server accepts requests, then updated per ProductsChangedEvent (saves, deletes,
+ * imports, and writes of other replicas). Changes during build are applied once built, see ChangesDuringBuild
+ * A search reads only postings of its terms, and ranks w/ tf-idf weighted by field (title > brand > subTitle ...).
+ * Top (page + 1) * size hits are kept in a heap, so matches are never sorted as a whole.
+ *
+ * Results are ProductSummary, kept here too, so search never hits db.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    private static final float TITLE = 3f;
+    private static final float BRAND = 2f;
+    private static final float SUB_TITLE = 1.5f;
+    private static final float SHORT_DESCRIPTION = 1f;
+    private static final float DESCRIPTION = 0.5f;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${product.scan.fetch-size:500}")
+    private int fetchSize;
+
+    // term => (product id => field weighted term frequency)
+    private final Map<String, Map<Integer, Float>> postings = new HashMap<>();
+
+    // product id => its terms, to remove its postings on change
+    private final Map<Integer, Set<String>> terms = new HashMap<>();
+    private final Map<Integer, ProductSummary> summaries = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ChangesDuringBuild changesDuringBuild = new ChangesDuringBuild();
+
+    // after all beans are ready, and before web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        build();
+
+        Set<Integer> changed = changesDuringBuild.built();
+
+        if (!changed.isEmpty())
+            apply(changed);
+    }
+
+    void build() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAllWithReviews(fetchSize)) {
+                products.forEach(product -> {
+                    index(product);
+
+                    entityManager.detach(product);
+                });
+            }
+        });
+
+        log.info("Search index built [products:{}, terms:{}]", size(), termCount());
+    }
+
+    @EventListener
+    void onProductsChanged(ProductsChangedEvent event) {
+        if (!changesDuringBuild.defer(event.getProductIds()))
+            apply(event.getProductIds());
+    }
+
+    private void apply(Set<Integer> productIds) {
+        Map<Integer, Product> products = new HashMap<>();
+
+        productRepository.findAllById(productIds)
+                         .forEach(product -> products.put(product.getId(), product));
+
+        for (Integer id : productIds) {
+            Product product = products.get(id);
+
+            if (product != null)
+                index(product);
+            else
+                remove(id);
+        }
+    }
+
+    /**
+     * @param query words, matched w/ any of them (OR), case insensitive
+     * @return page of hits, best first
+     */
+    public List<ProductSummary> search(String query, int page, int size) {
+
+        if (page < 0 || size < 1)
+            throw new IllegalArgumentException("Invalid page or size");
+
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+
+        if (queryTerms.isEmpty())
+            throw new IllegalArgumentException("Empty query");
+
+        int k = (page + 1) * size;
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = new HashMap<>();
+
+            for (String term : queryTerms) {
+                Map<Integer, Float> posting = postings.get(term);
+
+                if (posting == null)
+                    continue;
+
+                float idf = (float) Math.log(1 + (double) summaries.size() / posting.size());
+
+                posting.forEach((id, tf) -> scores.merge(id, tf * idf, Float::sum));
+            }
+
+            // min heap of top k, ties by id
+            Comparator<Map.Entry<Integer, Float>> byScore =
+                    Map.Entry.<Integer, Float>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+            PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(k + 1, byScore);
+
+            for (Map.Entry<Integer, Float> score : scores.entrySet()) {
+                top.offer(score);
+
+                if (top.size() > k)
+                    top.poll();
+            }
+
+            List<ProductSummary> hits = new ArrayList<>(top.size());
+
+            while (!top.isEmpty())
+                hits.add(summaries.get(top.poll().getKey()));
+
+            Collections.reverse(hits);
+
+            return hits.subList(Math.min(page * size, hits.size()), hits.size());
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return summaries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Product product) {
+        Map<String, Float> frequencies = new HashMap<>();
+
+        count(frequencies, product.getTitle(), TITLE);
+        count(frequencies, product.getBrand(), BRAND);
+        count(frequencies, product.getSubTitle(), SUB_TITLE);
+        count(frequencies, product.getShortDescription(), SHORT_DESCRIPTION);
+        count(frequencies, product.getDescription(), DESCRIPTION);
+
+        ProductSummary summary = ProductSummary.of(product);
+
+        lock.writeLock().lock();
+        try {
+            removePostings(product.getId());
+
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>())
+                                                      .put(product.getId(), tf));
+
+            terms.put(product.getId(), frequencies.keySet());
+            summaries.put(product.getId(), summary);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removePostings(id);
+
+            summaries.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removePostings(int id) {
+        Set<String> oldTerms = terms.remove(id);
+
+        if (oldTerms == null)
+            return;
+
+        for (String term : oldTerms) {
+            Map<Integer, Float> posting = postings.get(term);
+
+            posting.remove(id);
+
+            if (posting.isEmpty())
+                postings.remove(term);
+        }
+    }
+
+    private static void count(Map<String, Float> frequencies, String text, float weight) {
+        for (String term : tokenize(text))
+            frequencies.merge(term, weight, Float::sum);
+    }
+
+    // lower case words and numbers, one letter ones are skipped
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank())
+            return Collections.emptyList();
+
+        List<String> tokens = new ArrayList<>();
+
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            if (token.length() > 1)
+                tokens.add(token);
+
+        return tokens;
+    }
+}
@@ -1,18 +1,29 @@
 package com.backbone.core.demo.service;
 
 import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductCategory;
 import com.backbone.core.demo.ProductRepository;
+import com.backbone.core.demo.ProductSummary;
+import com.backbone.core.demo.config.CacheMetrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @Slf4j
@@ -23,23 +34,102 @@ public class ProductService {
     @Autowired
     ProductRepository productRepository;
 
-    @Cacheable(value = "product", key = "#id", unless = "#result == null")
+    @Autowired
+    ProductCacheKeys productCacheKeys;
+
+    @Autowired
+    CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    CacheMetrics cacheMetrics;
+
+    @Autowired
+    ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    FacetAggregate facetAggregate;
+
+    @Autowired
+    ProductCatalog productCatalog;
+
+    @Autowired
+    ProductBatchWriter productBatchWriter;
+
+    @Value("${product.cache.ttl-seconds:120}")
+    private long productTtlSeconds;
+
+    @Value("${product.cache.refresh-ahead-factor:0.75}")
+    private double refreshAheadFactor;
+
+    @Value("${product.cache.refresh-ahead-min-hits:3}")
+    private int refreshAheadMinHits;
+
+    @Value("${product.category.top-brands:3}")
+    private int topBrands;
+
+    @Value("${product.batch.max-size:10000}")
+    private int batchMaxSize;
+
+    private final ExecutorService refreshExecutor =
+            Executors.newFixedThreadPool(2, new CustomizableThreadFactory("product-refresh-"));
+
+    private RefreshAheadCache productCache;
+    private Timer productLoadTimer;
+
+    @PostConstruct
+    void init() {
+        productCache = new RefreshAheadCache(cacheManager.getCache("product"),
+                                             Duration.ofSeconds(productTtlSeconds),
+                                             refreshAheadFactor,
+                                             refreshAheadMinHits,
+                                             refreshExecutor);
+
+        productLoadTimer = cacheMetrics.loadTimer("product");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // cached in product w/ single-flight loading and refresh-ahead, see RefreshAheadCache
+    // reads below are served from snapshot instead, if enabled. see ProductCatalog
     public Optional<Product> getProduct(String id) {
 
-        Optional<Product> product = productRepository.findById(Integer.parseInt(id));
+        if (productCatalog.isEnabled()) {
+            Product product = productCatalog.snapshot().get(Integer.parseInt(id));
 
-        if (product.isEmpty())
-            throw new NullPointerException("No record");
+            if (product == null)
+                throw new NullPointerException("No record");
+
+            // shared by readers, callers set reviews on their copy
+            return Optional.of(product.copy());
+        }
+
+        return Optional.of(productCache.get(productCacheKeys.product(id), () -> productLoadTimer.record(() -> {
 
-        return product;
+            Optional<Product> product = productRepository.findById(Integer.parseInt(id));
+
+            if (product.isEmpty())
+                throw new NullPointerException("No record");
+
+            return product.get();
+        })));
     }
 
-    @Cacheable(value = "products", unless = "#result == null")
-    public Optional<Page<Product>> getProducts(String page, String size) {
+    @Cacheable(value = "products", key = "@productCacheKeys.products(#page, #size)",
+               condition = "!@productCatalog.enabled", unless = "#result == null")
+    public Optional<Page<ProductSummary>> getProducts(String page, String size) {
+
+        PageRequest pageRequest = PageRequest.of(Integer.parseInt(page), Integer.parseInt(size));
 
         //todo: returning Optional instead of Page, and handling in ReviewController can be more concise?
-        Page<Product> products = productRepository.findAll(PageRequest.of(Integer.parseInt(page),
-                Integer.parseInt(size)));
+        Page<ProductSummary> products = productCatalog.isEnabled()
+                                        ? productCatalog.snapshot().page(pageRequest)
+                                        : productRepository.findSummariesBy(pageRequest);
 
         if (products.isEmpty())
             throw new NullPointerException("No record");
@@ -47,40 +137,131 @@ public class ProductService {
         return Optional.of(products);
     }
 
-    @Cacheable(value = "categories", unless = "#result == null")
-    public Optional<List<String>> getCategories() {
+    public Optional<Slice<ProductSummary>> getProductsAfter(String after, String size) {
+
+        int afterId = ProductCursor.decode(after);
+        int limit = Integer.parseInt(size);
+
+        Slice<ProductSummary> products = productCatalog.isEnabled()
+                                         ? productCatalog.snapshot().after(afterId, limit)
+                                         : productRepository.findSummariesByIdGreaterThanOrderByIdAsc(
+                                                 afterId, PageRequest.of(0, limit));
 
-        Optional<List<String>> categories = productRepository.getDistinctCategories();
+        if (products.isEmpty())
+            throw new NullPointerException("No record");
+
+        return Optional.of(products);
+    }
+
+    // not cached, category directory is maintained in memory, see FacetAggregate
+    public Optional<List<ProductCategory>> getCategories() {
+
+        List<ProductCategory> categories = facetAggregate.categories(topBrands);
 
         if (categories.isEmpty())
             throw new NullPointerException("No record");
 
-        return categories;
+        return Optional.of(categories);
+    }
+
+    // not cached, served from ProductSearchIndex
+    public Optional<List<ProductSummary>> searchProducts(String query, String page, String size) {
+
+        List<ProductSummary> products = productSearchIndex.search(query,
+                                                                  Integer.parseInt(page),
+                                                                  Integer.parseInt(size));
+
+        if (products.isEmpty())
+            throw new NullPointerException("No record");
+
+        return Optional.of(products);
+    }
+
+    // not cached, products from indexed filter query, facet counts from FacetAggregate
+    public Optional<FacetedProducts> filterProducts(String category, String brand, String minRating,
+                                                    String page, String size) {
+
+        String c = blankToNull(category);
+        String b = blankToNull(brand);
+        Integer r = blankToNull(minRating) == null ? null : Integer.valueOf(minRating);
+
+        List<ProductSummary> products = productRepository.filterSummaries(c, b, r,
+                PageRequest.of(Integer.parseInt(page),
+                               Integer.parseInt(size)));
+
+        return Optional.of(new FacetedProducts(products, facetAggregate.facets(c, b, r)));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 
-    @Caching(evict = { @CacheEvict(value = {"products"}),
-                       @CacheEvict(value = {"product"}, allEntries = true)})
-    public Optional<Product> saveProduct(String id, Product product) {
+    /**
+     * Invalidates by versioned keys (product, its categories, listings) on all replicas,
+     * see ProductCacheKeys and CacheInvalidationBus
+     *
+     * @param expectedVersion version client has (If-Match), null to write over current one (last write wins)
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if product has another version
+     */
+    public Optional<Product> saveProduct(String id, Product product, Integer expectedVersion) {
+
+        Optional<ProductSummary> current = productRepository.findSummaryById(Integer.parseInt(id));
+
+        product.setVersion(expectedVersion != null ? expectedVersion
+                                                   : current.map(ProductSummary::getVersion).orElse(0));
+
+        // product may move to another category, so invalidate old and new one
+        String oldCategory = current.map(ProductSummary::getCategory).orElse(null);
 
         Product updatedProduct = productRepository.save(product);
 
+        cacheInvalidationBus.invalidate(List.of(updatedProduct.getId()),
+                                        Arrays.asList(oldCategory, updatedProduct.getCategory()));
+
         return Optional.of(updatedProduct);
     }
 
-    @Caching(evict = { @CacheEvict(value = {"product"}, key = "#id"),
-                       @CacheEvict(value = {"products"}) })
+    /**
+     * Creates products in chunks, see ProductBatchWriter. Ids and versions in request are ignored.
+     *
+     * Caches are invalidated once, for products saved until a failure, if any.
+     */
+    public Optional<List<Product>> saveProducts(List<Product> products) {
+
+        if (products.isEmpty() || products.size() > batchMaxSize)
+            throw new IllegalArgumentException("Batch size must be 1.." + batchMaxSize);
+
+        List<Product> savedProducts = new ArrayList<>(products.size());
+        int chunkSize = productBatchWriter.getChunkSize();
+
+        try (ProductBatchWriter.Batch batch = productBatchWriter.open()) {
+            for (int from = 0; from < products.size(); from += chunkSize)
+                savedProducts.addAll(batch.save(products.subList(from, Math.min(from + chunkSize, products.size()))));
+        }
+
+        return Optional.of(savedProducts);
+    }
+
     public void deleteProduct(String id) {
 
+        String category = productRepository.findCategoryById(Integer.parseInt(id)).orElse(null);
+
         productRepository.deleteById(Integer.valueOf(id));
+
+        cacheInvalidationBus.invalidate(List.of(Integer.valueOf(id)), Collections.singletonList(category));
     }
 
-    //todo: check caching, implement a new cache
-    //@Cacheable(value = "productsByCategory", unless = "#result == null")
-    public Optional<Page<Product>> getProductsByCategory(String category, String page, String size) {
+    // saving or deleting a product invalidates only pages of its categories, see ProductCacheKeys
+    @Cacheable(value = "productsByCategory",
+               key = "@productCacheKeys.productsByCategory(#category, #page, #size)",
+               condition = "!@productCatalog.enabled", unless = "#result == null")
+    public Optional<Page<ProductSummary>> getProductsByCategory(String category, String page, String size) {
 
-        Page<Product> products = productRepository.findByCategory(category,
-                PageRequest.of(Integer.parseInt(page),
-                        Integer.parseInt(size)));
+        PageRequest pageRequest = PageRequest.of(Integer.parseInt(page), Integer.parseInt(size));
+
+        Page<ProductSummary> products = productCatalog.isEnabled()
+                                        ? productCatalog.snapshot().page(category, pageRequest)
+                                        : productRepository.findSummariesByCategory(category, pageRequest);
 
         if (products.isEmpty())
             throw new NullPointerException("No record");
@@ -88,5 +269,20 @@ public class ProductService {
         return Optional.of(products);
     }
 
+    public Optional<Slice<ProductSummary>> getProductsByCategoryAfter(String category, String after, String size) {
+
+        int afterId = ProductCursor.decode(after);
+        int limit = Integer.parseInt(size);
+
+        Slice<ProductSummary> products = productCatalog.isEnabled()
+                                         ? productCatalog.snapshot().after(category, afterId, limit)
+                                         : productRepository.findSummariesByCategoryAndIdGreaterThanOrderByIdAsc(
+                                                 category, afterId, PageRequest.of(0, limit));
+
+        if (products.isEmpty())
+            throw new NullPointerException("No record");
+
+        return Optional.of(products);
+    }
 
 }
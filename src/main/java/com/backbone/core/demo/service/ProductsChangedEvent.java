@@ -0,0 +1,15 @@
+package com.backbone.core.demo.service;
+
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Products were created, updated or deleted, here or on another replica. Published by CacheInvalidationBus,
+ * after the write is committed. Listeners keeping derived data (such as ProductSearchIndex) reload these ids,
+ * a missing one is deleted.
+ */
+@Value
+public class ProductsChangedEvent {
+    Set<Integer> productIds;
+}
@@ -0,0 +1,155 @@
+package com.backbone.core.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Read-through wrapper of a Spring Cache, w/
+ *
+ * - single-flight: concurrent misses of a key share one load, other callers wait for its result
+ * - refresh-ahead: a hit on an entry older than refreshAheadFactor * ttl, which was read at least
+ *   minHits times since its load, reloads it in background. So hot entries never expire under readers.
+ *
+ * ttl must match the ttl of the underlying cache (see config/ehcache.xml).
+ */
+@Slf4j
+public class RefreshAheadCache {
+
+    // load times are tracked per key, least recently read ones are dropped beyond this
+    private static final int MAX_TRACKED = 10_000;
+
+    private final Cache cache;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final int minHits;
+    private final Executor executor;
+    private final Clock clock;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    // in access order, so reads keep hot keys tracked
+    private final Map<Object, Loaded> loaded =
+            Collections.synchronizedMap(new LinkedHashMap<Object, Loaded>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Loaded> eldest) {
+                    return size() > MAX_TRACKED;
+                }
+            });
+
+    public RefreshAheadCache(Cache cache, Duration ttl, double refreshAheadFactor, int minHits, Executor executor) {
+        this(cache, ttl, refreshAheadFactor, minHits, executor, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock ages entries, tests pass their own
+     */
+    public RefreshAheadCache(Cache cache, Duration ttl, double refreshAheadFactor, int minHits, Executor executor,
+                             Clock clock) {
+        this.cache = cache;
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAfterMillis = (long) (ttlMillis * refreshAheadFactor);
+        this.minHits = minHits;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * @param loader loads the value on miss, its RuntimeExceptions are thrown to all waiting callers
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> loader) {
+        Cache.ValueWrapper hit = cache.get(key);
+
+        if (hit != null) {
+            refreshIfDue(key, loader);
+
+            return (T) hit.get();
+        }
+
+        try {
+            return (T) load(key, loader, false).join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ce.getCause();
+
+            throw ce;
+        }
+    }
+
+    /**
+     * @param reload if false, a value cached by a load finished between caller's miss and this one is used
+     */
+    private CompletableFuture<Object> load(Object key, Supplier<?> loader, boolean reload) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, future);
+
+        if (inFlight != null)
+            return inFlight;
+
+        try {
+            Cache.ValueWrapper hit = reload ? null : cache.get(key);
+
+            if (hit != null) {
+                future.complete(hit.get());
+
+                return future;
+            }
+
+            Object value = loader.get();
+
+            cache.put(key, value);
+            track(key);
+
+            future.complete(value);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            loading.remove(key, future);
+        }
+
+        return future;
+    }
+
+    private void refreshIfDue(Object key, Supplier<?> loader) {
+        Loaded entry = loaded.get(key);
+
+        if (entry == null || entry.hits.incrementAndGet() < minHits)
+            return;
+
+        long age = clock.millis() - entry.at;
+
+        if (age < refreshAfterMillis || age >= ttlMillis || loading.containsKey(key))
+            return;
+
+        try {
+            executor.execute(() -> {
+                log.debug("Refresh ahead [key:{}, age:{}ms, hits:{}]", key, age, entry.hits.get());
+
+                load(key, loader, true);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Refresh ahead rejected [key:{}]", key);
+        }
+    }
+
+    private void track(Object key) {
+        loaded.put(key, new Loaded(clock.millis()));
+    }
+
+    private static class Loaded {
+        final long at;
+        final AtomicInteger hits = new AtomicInteger();
+
+        Loaded(long at) {
+            this.at = at;
+        }
+    }
+}
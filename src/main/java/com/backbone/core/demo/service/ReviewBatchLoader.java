@@ -0,0 +1,206 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.config.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces review lookups into bulk review-service calls.
+ *
+ * Lookups arriving within a short window (or until max-size distinct ids are pending)
+ * are sent as one ReviewService.bulkProductsReviews request (via ReviewClient), then results are fanned
+ * back out per product id. Same id in the same window shares one lookup.
+ *
+ * Lookups are served from ReviewCache first: fresh reviews w/o a call, stale ones w/ a call in background
+ * (one per product at a time), so only misses and expired reviews wait for review-service.
+ *
+ * Calls run on review-batch- threads, or on a virtual thread each if enabled. see VirtualThreads
+ *
+ * config: review-service.batch.window-ms, review-service.batch.max-size
+ * metrics: reviews.cache (result: fresh, stale, miss)
+ */
+@Service
+@Slf4j
+public class ReviewBatchLoader {
+
+    @Autowired
+    ReviewClient reviewClient;
+
+    @Autowired
+    ReviewCache reviewCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    VirtualThreads virtualThreads;
+
+    @Value("${review-service.batch.window-ms:5}")
+    private long windowMs;
+
+    @Value("${review-service.batch.max-size:50}")
+    private int maxSize;
+
+    private final ScheduledExecutorService dispatcher =
+            Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("review-batch-"));
+
+    // review-service calls, dispatcher itself if virtual threads are disabled
+    private ExecutorService caller;
+
+    // not synchronized, so waiting virtual threads don't pin their carrier
+    private final Lock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<List<Review>>> pending = new HashMap<>();
+
+    // products whose stale reviews are being reloaded
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private Counter freshHits;
+    private Counter staleHits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        caller = virtualThreads.executor("review-batch-vt-", () -> dispatcher);
+
+        freshHits = counter("fresh");
+        staleHits = counter("stale");
+        misses = counter("miss");
+    }
+
+    /**
+     * Queue a lookup into the current batch.
+     *
+     * @param productId Product's Id
+     * @return reviews of the product (empty list if it has none), last-known ones if review-service fails, or
+     *         completes exceptionally if it fails and there are no last-known ones. see ReviewClient
+     */
+    public CompletableFuture<List<Review>> load(String productId) {
+        CachedReviews cached = reviewCache.get(productId);
+
+        if (cached != null)
+            switch (reviewCache.freshness(cached)) {
+                case FRESH:
+                    freshHits.increment();
+
+                    return CompletableFuture.completedFuture(cached.getReviews());
+
+                case STALE:
+                    staleHits.increment();
+
+                    if (revalidating.add(productId))
+                        enqueue(productId).whenComplete((reviews, e) -> revalidating.remove(productId));
+
+                    return CompletableFuture.completedFuture(cached.getReviews());
+
+                default:
+                    break;
+            }
+
+        misses.increment();
+
+        return enqueue(productId);
+    }
+
+    private CompletableFuture<List<Review>> enqueue(String productId) {
+        CompletableFuture<List<Review>> future;
+        Map<String, CompletableFuture<List<Review>>> full = null;
+
+        lock.lock();
+        try {
+            future = pending.get(productId);
+
+            if (future != null)
+                return future;
+
+            future = new CompletableFuture<>();
+            pending.put(productId, future);
+
+            if (pending.size() >= maxSize) {
+                full = pending;
+                pending = new HashMap<>();
+            } else if (pending.size() == 1)
+                dispatcher.schedule(() -> caller.execute(this::flush), windowMs, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            Map<String, CompletableFuture<List<Review>>> batch = full;
+            caller.execute(() -> dispatch(batch));
+        }
+
+        return future;
+    }
+
+    private void flush() {
+        Map<String, CompletableFuture<List<Review>>> batch;
+
+        lock.lock();
+        try {
+            if (pending.isEmpty())
+                return;
+
+            batch = pending;
+            pending = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<String, CompletableFuture<List<Review>>> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+
+        try {
+            Map<String, List<Review>> reviews = reviewClient.bulkReviews(ids);
+
+            log.info("Call review-service [ids:{}, count:{}]", ids.size(), reviews.size());
+
+            batch.forEach((id, future) -> {
+                List<Review> productReviews = reviews.get(id);
+
+                if (productReviews != null)
+                    future.complete(productReviews);
+                else
+                    future.completeExceptionally(new IllegalStateException("No reviews of " + id));
+            });
+
+        } catch (Exception e) {
+            log.error("Exception [ids:{}] : {}", ids, e.getMessage());
+
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private Counter counter(String result) {
+        return Counter.builder("reviews.cache")
+                      .description("Review lookups by freshness of cached reviews")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        caller.shutdownNow();
+    }
+}
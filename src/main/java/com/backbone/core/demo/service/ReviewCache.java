@@ -0,0 +1,77 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Review;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Reviews per product id in reviews cache, so review-service calls leave the hot path. see ReviewBatchLoader
+ *
+ * An entry is
+ * - fresh for ttl-seconds, or negative-ttl-seconds if product has no reviews (negative caching): served as is
+ * - stale for stale-while-revalidate-seconds more: served as is, and reloaded in background
+ * - expired after that: loaded again, callers wait
+ *
+ * Expired entries are kept until ttl of reviews cache (config/ehcache.xml), as last-known reviews
+ * if review-service fails. see ReviewClient
+ *
+ * config: review-service.cache.ttl-seconds, negative-ttl-seconds, stale-while-revalidate-seconds
+ */
+@Component
+public class ReviewCache {
+
+    public enum Freshness { FRESH, STALE, EXPIRED }
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Value("${review-service.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${review-service.cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    @Value("${review-service.cache.stale-while-revalidate-seconds:300}")
+    private long staleWhileRevalidateSeconds;
+
+    // ages entries, tests set their own
+    private Clock clock = Clock.systemUTC();
+
+    private Cache cache;
+
+    @PostConstruct
+    void init() {
+        cache = cacheManager.getCache("reviews");
+    }
+
+    /**
+     * @return cached reviews of any age, null if none
+     */
+    public CachedReviews get(String productId) {
+        return cache.get(productId, CachedReviews.class);
+    }
+
+    public void put(String productId, List<Review> reviews) {
+        cache.put(productId, new CachedReviews(reviews, clock.millis()));
+    }
+
+    public Freshness freshness(CachedReviews cached) {
+        long ttlMillis = (cached.getReviews().isEmpty() ? negativeTtlSeconds : ttlSeconds) * 1000;
+        long age = clock.millis() - cached.getLoadedAt();
+
+        if (age < ttlMillis)
+            return Freshness.FRESH;
+
+        if (age < ttlMillis + staleWhileRevalidateSeconds * 1000)
+            return Freshness.STALE;
+
+        return Freshness.EXPIRED;
+    }
+}
@@ -0,0 +1,104 @@
+package com.backbone.core.demo.service;
+
+import com.backbone.core.demo.Review;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Latency-protected calls of review-service, see ReviewService.
+ *
+ * - timeouts: connect and read, feign.client.config.review-service
+ * - bulkhead: caps concurrent calls, others fail at once instead of waiting
+ * - circuit breaker: opens on failed or slow calls, then calls fail at once until it lets a few try again
+ *
+ * If a call fails in any of these ways, last-known reviews are returned instead (ReviewCache, put on every
+ * successful call). Products w/o last-known reviews are left out, so callers can tell them from products w/o reviews.
+ *
+ * config: resilience4j.circuitbreaker.instances.review-service, resilience4j.bulkhead.instances.review-service
+ * metrics: resilience4j.circuitbreaker.*, resilience4j.bulkhead.*, reviews.fallback (result: hit, miss)
+ */
+@Service
+@Slf4j
+public class ReviewClient {
+
+    public static final String REVIEW_SERVICE = "review-service";
+
+    @Autowired
+    ReviewService reviewService;
+
+    @Autowired
+    ReviewCache reviewCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private Counter fallbackHits;
+    private Counter fallbackMisses;
+
+    @PostConstruct
+    void init() {
+        fallbackHits = Counter.builder("reviews.fallback")
+                              .description("Products served w/ last-known reviews, as review-service failed")
+                              .tag("result", "hit")
+                              .register(meterRegistry);
+
+        fallbackMisses = Counter.builder("reviews.fallback")
+                                .description("Products served w/o reviews, as review-service failed")
+                                .tag("result", "miss")
+                                .register(meterRegistry);
+    }
+
+    /**
+     * @return reviews by product id, w/ all given ids (empty list if product has none)
+     *         or, if review-service fails, only ids w/ last-known reviews
+     */
+    @CircuitBreaker(name = REVIEW_SERVICE, fallbackMethod = "lastKnownReviews")
+    @Bulkhead(name = REVIEW_SERVICE)
+    public Map<String, List<Review>> bulkReviews(List<String> productIds) {
+
+        Map<String, List<Review>> reviews = reviewService.bulkProductsReviews(productIds)
+                                                         .orElse(Collections.emptyList())
+                                                         .stream()
+                                                         .collect(Collectors.groupingBy(review ->
+                                                                 String.valueOf(review.getProductId())));
+
+        Map<String, List<Review>> result = new HashMap<>();
+
+        for (String id : productIds) {
+            List<Review> productReviews = reviews.getOrDefault(id, Collections.emptyList());
+
+            result.put(id, productReviews);
+            reviewCache.put(id, productReviews);
+        }
+
+        return result;
+    }
+
+    // fallback of bulkReviews, for any exception (timeout, open circuit, full bulkhead, error responses ...)
+    Map<String, List<Review>> lastKnownReviews(List<String> productIds, Throwable t) {
+        Map<String, List<Review>> result = new HashMap<>();
+
+        for (String id : productIds) {
+            CachedReviews cached = reviewCache.get(id);
+
+            if (cached != null)
+                result.put(id, cached.getReviews());
+        }
+
+        fallbackHits.increment(result.size());
+        fallbackMisses.increment(productIds.size() - result.size());
+
+        log.warn("Last-known reviews [ids:{}, found:{}] : {}", productIds.size(), result.size(), t.toString());
+
+        return result;
+    }
+}
@@ -5,16 +5,17 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
-@FeignClient(name = "review-service", url = "http://localhost:8084")
+@FeignClient(name = "review-service", url = "${review-service.url:http://localhost:8084}")
 public interface ReviewService {
 
-    @GetMapping("reviews/product/{productId}")
-    Optional<List<Review>> productsReviews(@PathVariable String productId);
+    // reviews of all given products in one call, single lookups are coalesced into it. use it via ReviewBatchLoader
+    @GetMapping("reviews/products")
+    Optional<List<Review>> bulkProductsReviews(@RequestParam("ids") List<String> productIds);
 
 }
@@ -13,13 +13,23 @@ create table product
   rating int null comment 'rating of product',
   short_description varchar(500) not null,
   description varchar(5000) null,
+  version int default 0 not null comment 'optimistic lock, see Product',
   constraint products_id_uindex unique (id)
 );
 
 
 alter table product add primary key (id);
 
---todo: create indexes category for more realistic scenarios etc...
+-- ids are taken from product_seq by 50, see Product. starts after the records below
+create sequence product_seq start with 150 increment by 50;
+
+-- keyset pagination seeks on (category, id), see ProductRepository
+create index product_category_id_index on product (category, id);
+
+-- facet filters, see ProductFilterRepository
+create index product_brand_id_index on product (brand, id);
+create index product_rating_id_index on product (rating, id);
+
 --todo: to open analytical models as API, below flat design should be well ok
 
 INSERT INTO PRODUCT (category,title,sub_title,brand,rating,short_description,description)
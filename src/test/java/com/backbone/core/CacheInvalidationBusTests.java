@@ -0,0 +1,56 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.CacheInvalidationBus;
+import com.backbone.core.demo.service.InstanceService;
+import com.backbone.core.demo.service.LoopbackInvalidationTransport;
+import com.backbone.core.demo.service.ProductCacheKeys;
+import com.backbone.core.demo.service.ProductsChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheInvalidationBusTests {
+
+    // two replicas on one loopback
+    private final LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+
+    private final ProductCacheKeys keys = new ProductCacheKeys();
+    private final ProductCacheKeys peerKeys = new ProductCacheKeys();
+
+    private final List<Object> peerEvents = new ArrayList<>();
+
+    private final CacheInvalidationBus bus =
+            new CacheInvalidationBus(keys, transport, new InstanceService(), event -> {});
+    private final CacheInvalidationBus peerBus =
+            new CacheInvalidationBus(peerKeys, transport, new InstanceService(), peerEvents::add);
+
+    @Test
+    public void writeOnOneReplicaInvalidatesPeers() {
+        String product = peerKeys.product("1");
+        String products = peerKeys.products("0", "10");
+        String book = peerKeys.productsByCategory("Book", "0", "10");
+        String outdoor = peerKeys.productsByCategory("Outdoor", "0", "10");
+
+        bus.invalidate(List.of(1), Arrays.asList("Book", null));
+
+        assertThat(peerKeys.product("1")).isNotEqualTo(product);
+        assertThat(peerKeys.products("0", "10")).isNotEqualTo(products);
+        assertThat(peerKeys.productsByCategory("Book", "0", "10")).isNotEqualTo(book);
+        assertThat(peerKeys.productsByCategory("Outdoor", "0", "10")).isEqualTo(outdoor);
+
+        assertThat(peerEvents).containsExactly(new ProductsChangedEvent(Set.of(1)));
+    }
+
+    @Test
+    public void replicaAppliesItsOwnWriteOnce() {
+        bus.invalidate(List.of(1), List.of("Book"));
+
+        assertThat(keys.product("1")).isEqualTo(peerKeys.product("1"));
+        assertThat(keys.products("0", "10")).isEqualTo(peerKeys.products("0", "10"));
+    }
+}
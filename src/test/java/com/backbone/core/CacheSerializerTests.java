@@ -0,0 +1,117 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.Product;
+import com.backbone.core.demo.ProductSummary;
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.config.ProductSerializer;
+import com.backbone.core.demo.config.ProductSummaryPageSerializer;
+import com.backbone.core.demo.config.CachedReviewsSerializer;
+import com.backbone.core.demo.service.CachedReviews;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.Link;
+import org.springframework.util.SerializationUtils;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheSerializerTests {
+
+    private final ProductSerializer productSerializer = new ProductSerializer(getClass().getClassLoader());
+    private final ProductSummaryPageSerializer pageSerializer =
+            new ProductSummaryPageSerializer(getClass().getClassLoader());
+    private final CachedReviewsSerializer reviewsSerializer =
+            new CachedReviewsSerializer(getClass().getClassLoader());
+
+    @Test
+    public void productRoundTripsAndIsSmallerThanJavaSerialization() {
+        Product product = product(1);
+        product.add(Link.of("/product/1"));
+
+        ByteBuffer buffer = productSerializer.serialize(product);
+        int size = buffer.remaining();
+
+        Product read = productSerializer.read(buffer);
+
+        assertThat(read).isEqualTo(product);
+        assertThat(read.getReviews()).isEqualTo(product.getReviews());
+        assertThat(read.getLinks()).isEqualTo(product.getLinks());
+        assertThat(productSerializer.equals(product, productSerializer.serialize(product))).isTrue();
+
+        assertThat(size * 2).isLessThan(SerializationUtils.serialize(product).length);
+    }
+
+    @Test
+    public void productKeepsNullsAndEmptyLists() {
+        Product product = new Product();
+        product.setId(2);
+        product.setReviews(List.of());
+
+        Product read = productSerializer.read(productSerializer.serialize(product));
+
+        assertThat(read.getTitle()).isNull();
+        assertThat(read.getReviews()).isEmpty();
+        assertThat(read).isEqualTo(product);
+    }
+
+    @Test
+    public void summaryPageRoundTripsAndIsSmallerThanJavaSerialization() {
+        List<ProductSummary> content = IntStream.rangeClosed(1, 10)
+                .mapToObj(id -> new ProductSummary(id, "Lorem ipsum dolor", null, "Dyson", 4, "Outdoor", "Lorem", 1))
+                .collect(Collectors.toList());
+
+        Page<ProductSummary> page = new PageImpl<>(content, PageRequest.of(3, 10), 99);
+
+        ByteBuffer buffer = pageSerializer.serialize(page);
+        int size = buffer.remaining();
+
+        Page<?> read = pageSerializer.read(buffer);
+
+        assertThat(read).isEqualTo(page);
+        assertThat(read.getTotalElements()).isEqualTo(99);
+        assertThat(read.getNumber()).isEqualTo(3);
+
+        assertThat(size * 2).isLessThan(SerializationUtils.serialize(page).length);
+    }
+
+    @Test
+    public void cachedReviewsRoundTrip() {
+        CachedReviews cached = new CachedReviews(product(3).getReviews(), System.currentTimeMillis());
+        CachedReviews none = new CachedReviews(List.of(), 1);
+
+        assertThat(reviewsSerializer.read(reviewsSerializer.serialize(cached))).isEqualTo(cached);
+        assertThat(reviewsSerializer.read(reviewsSerializer.serialize(none))).isEqualTo(none);
+        assertThat(reviewsSerializer.equals(cached, reviewsSerializer.serialize(cached))).isTrue();
+    }
+
+    private static Product product(int id) {
+        Product product = new Product();
+
+        product.setId(id);
+        product.setCategory("Outdoor");
+        product.setTitle("Lorem ipsum dolor sit amet, consectetuer adipiscing elit. Curabitur sed");
+        product.setSubTitle("10% discount at cart");
+        product.setBrand("Dyson");
+        product.setRating(4);
+        product.setShortDescription("Lorem ipsum dolor");
+        product.setDescription("metus urna convallis erat, eget tincidunt dui augue eu tellus.");
+        product.setVersion(3);
+
+        Review review = new Review();
+        review.setId(11);
+        review.setProductId(id);
+        review.setUserName("user");
+        review.setTitle("çok iyi");
+        review.setRating(5);
+        review.setVerifiedPurchase(true);
+        product.setReviews(List.of(review));
+
+        return product;
+    }
+}
@@ -0,0 +1,99 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.ProductCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = "product.snapshot.enabled=true")
+public class CatalogSnapshotTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    public void readsAreServedFromSnapshot() throws Exception {
+        assertThat(productCatalog.isEnabled(), is(true));
+        assertThat(productCatalog.snapshot().size(), is(100));
+
+        this.mockMvc.perform(get("/product/7"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.id", is(7)))
+                .andExpect(jsonPath("$.reviews", hasSize(2)));
+
+        this.mockMvc.perform(get("/products/page/1/size/5"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].id", contains(6, 7, 8, 9, 10)));
+
+        this.mockMvc.perform(get("/products/category"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].name", hasItems("Book", "Fashion", "Outdoor")));
+
+        this.mockMvc.perform(get("/products/page/20/size/10"))
+                .andExpect(status().is(204));
+
+        this.mockMvc.perform(get("/product/200"))
+                .andExpect(status().is(404));
+    }
+
+    @Test
+    public void readsBypassingCacheAreNotTimedAsLoads() throws Exception {
+        Timer loads = registry.get("cache.load").tag("cache", "products").timer();
+        long before = loads.count();
+
+        this.mockMvc.perform(get("/products/page/2/size/5"))
+                .andExpect(status().is2xxSuccessful());
+
+        assertThat(loads.count(), is(before));
+    }
+
+    @Test
+    public void writesPublishNewSnapshot() throws Exception {
+        String newProduct = "{\"category\":\"Snapshot\"," +
+                            "\"title\":\"title\"," +
+                            "\"brand\":\"brand\"," +
+                            "\"shortDescription\":\"short description\"}";
+
+        String saved = this.mockMvc.perform(post("/product")
+                                             .contentType(MediaType.APPLICATION_JSON)
+                                             .content(newProduct))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+
+        String id = saved.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        this.mockMvc.perform(get("/products/category/Snapshot"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].id", contains(Integer.parseInt(id))));
+
+        this.mockMvc.perform(get("/products").param("after", "").param("size", "500"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[-1].id", is(Integer.parseInt(id))));
+
+        this.mockMvc.perform(delete("/product/" + id))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/product/" + id))
+                .andExpect(status().is(404));
+
+        this.mockMvc.perform(get("/products/category/Snapshot"))
+                .andExpect(status().is(204));
+    }
+}
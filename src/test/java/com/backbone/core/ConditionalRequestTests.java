@@ -0,0 +1,112 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ConditionalRequestTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    public void productReturnsNotModifiedForItsETag() throws Exception {
+        String etag = this.mockMvc.perform(get("/product/5"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.version", is(0)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // id-version-SHA-256 of reviews
+        assertThat(etag, matchesPattern("\"5-0-[0-9a-f]{64}\""));
+
+        this.mockMvc.perform(get("/product/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(is(emptyString())));
+    }
+
+    @Test
+    public void productSaveWithStaleIfMatchReturnsPreconditionFailed() throws Exception {
+        String product = "{\"id\":6," +
+                         "\"category\":\"Outdoor\"," +
+                         "\"title\":\"title\"," +
+                         "\"brand\":\"brand\"," +
+                         "\"shortDescription\":\"short description\"}";
+
+        String etag = this.mockMvc.perform(get("/product/6"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(post("/product")
+                              .header(HttpHeaders.IF_MATCH, etag)
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(product))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.version", is(1)));
+
+        // someone else saved it since etag
+        this.mockMvc.perform(post("/product")
+                              .header(HttpHeaders.IF_MATCH, etag)
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(product))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+
+        // w/o If-Match, last write wins
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(product))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.version", is(2)));
+
+        this.mockMvc.perform(get("/product/6").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"6-2-")));
+    }
+
+    @Test
+    public void listReturnsNotModifiedUntilItChanges() throws Exception {
+        String url = "/products/page/0/size/5";
+
+        String etag = this.mockMvc.perform(get(url))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag, matchesPattern("W/\"[0-9a-f]{64}\""));
+
+        this.mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content("{\"id\":2,\"category\":\"Outdoor\",\"title\":\"new title\"," +
+                                       "\"brand\":\"brand\",\"shortDescription\":\"short description\"}"))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[1].title", is("new title")));
+    }
+
+    @Test
+    public void productResponseLeavesCachedProductAsIs() throws Exception {
+        this.mockMvc.perform(get("/product/7"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.reviews", hasSize(2)));
+
+        // reviews are set on a copy, a cached instance may be shared by concurrent requests
+        assertThat(productService.getProduct("7").orElseThrow().getReviews(), anyOf(nullValue(), empty()));
+    }
+}
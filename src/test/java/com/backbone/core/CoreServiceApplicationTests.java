@@ -1,12 +1,27 @@
 package com.backbone.core;
 
+import com.backbone.core.demo.service.ProductExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -19,6 +34,21 @@ class CoreServiceApplicationTests {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ProductExporter productExporter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // caches are shared w/ contexts of ReviewServiceStubTests, see there
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
     @Test
     void contextLoads() {
         //todo: initial records vs initialize records here for testing?
@@ -106,6 +136,30 @@ class CoreServiceApplicationTests {
                 .andExpect(content().string(not(containsString(expectedMessage))));
     }
 
+    @Test
+    public void productsReturnSummariesWithoutDetails() throws Exception {
+        this.mockMvc.perform(get("/products/page/0/size/3"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].title").exists())
+                .andExpect(jsonPath("$[0].shortDescription").exists())
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].reviews").doesNotExist())
+                .andExpect(jsonPath("$[0].links").doesNotExist())
+                .andExpect(jsonPath("$[0]._links").doesNotExist());
+    }
+
+    @Test
+    public void productsByCategoryReturnSummariesWithoutDetails() throws Exception {
+        this.mockMvc.perform(get("/products/category/Outdoor/page/0/size/3"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].category", everyItem(is("Outdoor"))))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].reviews").doesNotExist());
+    }
+
     @Test
     public void productsWithNotValidPageNumberAndReturnsNotFound() throws Exception {
         String url = "/products/page/1a";
@@ -140,6 +194,223 @@ class CoreServiceApplicationTests {
                 .andExpect(content().string(blankOrNullString()));
     }
 
+    @Test
+    public void productsInCborWhenAccepted() throws Exception {
+        String url = "/products/page/0/size/10";
+
+        byte[] json = this.mockMvc.perform(get(url))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] cbor = this.mockMvc.perform(get(url).accept("application/cbor"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor), is(new ObjectMapper().readTree(json)));
+        assertThat(cbor.length, is(lessThan(json.length)));
+    }
+
+    // cursor paging
+    @Test
+    public void productsWithEmptyCursorReturnsFirstPageAndNextCursor() throws Exception {
+        String url = "/products?after=&size=3";
+
+        String next = this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..id", hasSize(3)))
+                .andExpect(jsonPath("$.[0].id", is(1)))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        this.mockMvc.perform(get("/products").param("after", next).param("size", "3"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..id", hasSize(3)))
+                .andExpect(jsonPath("$.[0].id", is(4)));
+    }
+
+    @Test
+    public void productsByCategoryWithCursorStaysInCategory() throws Exception {
+        String url = "/products/category/Outdoor?after=&size=2";
+
+        String next = this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..category", everyItem(is("Outdoor"))))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        this.mockMvc.perform(get("/products/category/Outdoor").param("after", next))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..category", everyItem(is("Outdoor"))));
+    }
+
+    @Test
+    public void productsWithNotValidCursorAndReturnsBadRequest() throws Exception {
+        String url = "/products?after=notacursor";
+
+        this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is(400))
+                .andExpect(content().string(blankOrNullString()));
+    }
+
+    // search
+    @Test
+    public void productsSearchFollowsSaves() throws Exception {
+        String newProduct = "{\"category\":\"Book\"," +
+                            "\"title\":\"Quokka field guide\"," +
+                            "\"brand\":\"brand\"," +
+                            "\"shortDescription\":\"a quokka in its habitat\"}";
+
+        String saved = this.mockMvc.perform(post("/product")
+                                             .contentType(MediaType.APPLICATION_JSON)
+                                             .content(newProduct))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+
+        this.mockMvc.perform(get("/products/search").param("q", "QUOKKA guide"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[0].title", is("Quokka field guide")));
+
+        String id = saved.replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(newProduct.replace("{", "{\"id\":" + id + ",")
+                                                 .replace("Quokka field guide", "Wombat field guide")
+                                                 .replace("a quokka", "a wombat")))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/products/search").param("q", "quokka"))
+                .andExpect(status().is(204));
+
+        this.mockMvc.perform(get("/products/search").param("q", "wombat"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].id", contains(Integer.parseInt(id))));
+    }
+
+    @Test
+    public void productsSearchWithEmptyQueryAndReturnsBadRequest() throws Exception {
+        this.mockMvc.perform(get("/products/search").param("q", " "))
+                .andExpect(status().is(400));
+    }
+
+    // category directory
+    @Test
+    public void categoryDirectoryFollowsSaves() throws Exception {
+        String newProduct = "{\"category\":\"Directory\"," +
+                            "\"title\":\"title\"," +
+                            "\"brand\":\"DirectoryBrand\"," +
+                            "\"shortDescription\":\"short description\"}";
+
+        this.mockMvc.perform(get("/products/category"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].name", hasItems("Book", "Fashion", "Outdoor")))
+                .andExpect(jsonPath("$[?(@.name == 'Directory')]").isEmpty());
+
+        for (int i = 0; i < 2; i++)
+            this.mockMvc.perform(post("/product")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .content(newProduct))
+                    .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/products/category"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[?(@.name == 'Directory')].count", contains(2)))
+                .andExpect(jsonPath("$[?(@.name == 'Directory')].topBrands.DirectoryBrand", contains(2)))
+                .andExpect(jsonPath("$[0].topBrands.length()", is(lessThanOrEqualTo(3))));
+    }
+
+    // filter
+    @Test
+    public void productsFilterWithFacetCounts() throws Exception {
+        String newProduct = "{\"category\":\"Facets\"," +
+                            "\"title\":\"title\"," +
+                            "\"brand\":\"FacetBrand\"," +
+                            "\"rating\":5," +
+                            "\"shortDescription\":\"short description\"}";
+
+        for (int i = 0; i < 3; i++)
+            this.mockMvc.perform(post("/product")
+                                  .contentType(MediaType.APPLICATION_JSON)
+                                  .content(i < 2 ? newProduct : newProduct.replace("FacetBrand", "OtherBrand")
+                                                                          .replace("5", "2")))
+                    .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/products/filter")
+                              .param("category", "Facets")
+                              .param("brand", "FacetBrand")
+                              .param("minRating", "4")
+                              .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].brand", is("FacetBrand")))
+                .andExpect(jsonPath("$.facets.total", is(2)))
+                // disjunctive, brands of the category w/ rating >= 4, whatever the brand filter is
+                .andExpect(jsonPath("$.facets.brand.FacetBrand", is(2)))
+                .andExpect(jsonPath("$.facets.brand.OtherBrand").doesNotExist())
+                .andExpect(jsonPath("$.facets.rating.2").doesNotExist())
+                .andExpect(jsonPath("$.facets.rating.5", is(2)))
+                .andExpect(jsonPath("$.facets.category.Facets", is(2)));
+
+        this.mockMvc.perform(get("/products/filter")
+                              .param("category", "Facets"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.facets.total", is(3)))
+                .andExpect(jsonPath("$.facets.brand.OtherBrand", is(1)))
+                .andExpect(jsonPath("$.facets.rating.2", is(1)));
+    }
+
+    @Test
+    public void productsFilterWithNotValidRatingAndReturnsBadRequest() throws Exception {
+        this.mockMvc.perform(get("/products/filter").param("minRating", "high"))
+                .andExpect(status().is(400));
+    }
+
+    // export
+    @Test
+    public void productsExportAsNdjson() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        assertThat(lines.length, is(greaterThanOrEqualTo(90)));
+        assertThat(lines[0], startsWith("{\"id\":"));
+        assertThat(lines[lines.length - 1], endsWith("}"));
+    }
+
+    @Test
+    public void productsExportInOneQuery() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            int rows = productExporter.export(new ByteArrayOutputStream());
+
+            // reviews are joined, not loaded per product
+            assertThat(rows, is(greaterThanOrEqualTo(90)));
+            assertThat(statistics.getPrepareStatementCount(), is(1L));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     // service ops
 
     // save
@@ -282,6 +553,123 @@ class CoreServiceApplicationTests {
                 .andExpect(jsonPath("$.description", is("description")));
     }
 
+    @Test
+    public void productsCreateInBatch() throws Exception {
+        String url = "/products/batch";
+
+        //todo: keep total records < 200, see productsWithBigPageNumberAndReturnsNoContent
+        String newProducts = IntStream.range(0, 60)
+                                      .mapToObj(i -> "{\"id\":" + i + "," +
+                                                     "\"version\":" + i + "," +
+                                                     "\"category\":\"Batch\"," +
+                                                     "\"title\":\"batch title " + i + "\"," +
+                                                     "\"brand\":\"brand\"," +
+                                                     "\"shortDescription\":\"short description\"}")
+                                      .collect(Collectors.joining(",", "[", "]"));
+
+        this.mockMvc.perform(post(url)
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(newProducts))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$", hasSize(60)))
+                .andExpect(jsonPath("$[*].id", everyItem(greaterThan(100))))
+                .andExpect(jsonPath("$[*].version", everyItem(is(0))))
+                .andExpect(jsonPath("$[59].title", is("batch title 59")));
+
+        this.mockMvc.perform(get("/products/category/Batch/page/0/size/200"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$", hasSize(60)));
+    }
+
+    @Test
+    public void productsCreateInBatchWithEmptyListAndReturnsBadRequest() throws Exception {
+        this.mockMvc.perform(post("/products/batch")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content("[]"))
+                .andDo(print())
+                .andExpect(status().is(400));
+    }
+
+    @Test
+    public void productsImportFromNdjsonAndReportsRejects() throws Exception {
+        String feed = "{\"category\":\"Imported\",\"title\":\"imported title\",\"brand\":\"brand\"," +
+                      "\"shortDescription\":\"short description\"}\n" +
+                      "{\"category\":\"Imported\",\"title\":\n" +
+                      "\n" +
+                      "{\"category\":\"Imported\",\"title\":\"no brand\",\"shortDescription\":\"short\"}\n";
+
+        this.mockMvc.perform(post("/products/import")
+                              .contentType("application/x-ndjson")
+                              .content(feed))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejected", is(2)))
+                .andExpect(jsonPath("$.rejects[*].line", contains(2, 4)));
+
+        this.mockMvc.perform(get("/products/category/Imported"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].title", hasItem("imported title")));
+    }
+
+    @Test
+    public void productsImportFromCsv() throws Exception {
+        String feed = "category,title,brand,rating,shortDescription\n" +
+                      "CsvImported,\"title, w/ \"\"quotes\"\"\",brand,4,short description\n" +
+                      "CsvImported,other title,brand,x,short description\n";
+
+        this.mockMvc.perform(post("/products/import")
+                              .contentType("text/csv")
+                              .content(feed))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejects[0].line", is(3)));
+
+        this.mockMvc.perform(get("/products/category/CsvImported"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[0].title", is("title, w/ \"quotes\"")))
+                .andExpect(jsonPath("$[0].rating", is(4)));
+
+        this.mockMvc.perform(post("/products/import")
+                              .contentType("text/csv")
+                              .content("category,price\n"))
+                .andExpect(status().is(400));
+    }
+
+    @Test
+    public void productsImportStreamsProgress() throws Exception {
+        String product = "{\"id\":1,\"version\":7,\"category\":\"ProgressImported\",\"title\":\"title\"," +
+                         "\"brand\":\"brand\",\"shortDescription\":\"short description\"}\n";
+
+        MvcResult result = this.mockMvc.perform(post("/products/import")
+                                                        .contentType("application/x-ndjson")
+                                                        .accept("application/x-ndjson")
+                                                        .content(product + "{\"category\":\n" + product))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+
+        // a progress line per chunk, then report
+        assertThat(lines.length, is(greaterThanOrEqualTo(2)));
+        assertThat(lines[lines.length - 2], is("{\"accepted\":2,\"rejected\":1}"));
+        assertThat(lines[lines.length - 1], startsWith("{\"accepted\":2,\"rejected\":1,\"rejects\":[{\"line\":2,"));
+
+        // ids and versions in feed are ignored
+        this.mockMvc.perform(get("/products/category/ProgressImported"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$[*].id", everyItem(not(1))))
+                .andExpect(jsonPath("$[*].version", everyItem(is(0))));
+    }
+
     // delete
     @Test
     public void productDeleteWithID() throws Exception {
@@ -299,4 +687,80 @@ class CoreServiceApplicationTests {
 
     //todo: after some operations, there must be steps (or other kind of methods)
     // which checks the cache
+
+    // cache
+    @Test
+    public void productsByCategoryCacheIsInvalidatedOnSave() throws Exception {
+        String url = "/products/category/Garden";
+        String newProduct = "{" +
+                            "\"category\":\"Garden\"," +
+                            "\"title\":\"title\"," +
+                            "\"brand\":\"brand\"," +
+                            "\"shortDescription\":\"short description\"}";
+
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(newProduct))
+                .andExpect(status().is2xxSuccessful());
+
+        // caches the page
+        this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..id", hasSize(1)));
+
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(newProduct))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$..id", hasSize(2)));
+    }
+
+    @Test
+    public void productsCacheMissesAfterSave() throws Exception {
+        String url = "/products/page/0/size/50";
+        String updatedProduct = "{\"id\":7," +
+                                "\"category\":\"Outdoor\"," +
+                                "\"title\":\"fresh title\"," +
+                                "\"brand\":\"brand\"," +
+                                "\"shortDescription\":\"short description\"}";
+
+        // caches the page
+        this.mockMvc.perform(get(url))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(post("/product")
+                              .contentType(MediaType.APPLICATION_JSON)
+                              .content(updatedProduct))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get(url))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().string(containsString("fresh title")));
+    }
+
+    //  Metrics
+    @Test
+    public void cacheMetricsAreExposed() throws Exception {
+        // a miss of a page never asked before, so it is loaded
+        this.mockMvc.perform(get("/products/page/3/size/2"))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/actuator/metrics/cache.load").param("tag", "cache:products"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value", contains(greaterThanOrEqualTo(1.0))));
+
+        this.mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:products"))
+                .andExpect(status().is2xxSuccessful());
+
+        this.mockMvc.perform(get("/actuator/metrics/cache.tier.entries").param("tag", "cache:products"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'tier')].values[*]", hasItem("OnHeap")));
+    }
 }
@@ -0,0 +1,53 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.ProductCategory;
+import com.backbone.core.demo.ProductRepository;
+import com.backbone.core.demo.ProductSummary;
+import com.backbone.core.demo.service.FacetAggregate;
+import com.backbone.core.demo.service.ProductsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FacetAggregateTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final FacetAggregate facetAggregate = new FacetAggregate();
+
+    @Test
+    public void categoryDirectoryHasChangesArrivedDuringBuild() {
+        ReflectionTestUtils.setField(facetAggregate, "productRepository", productRepository);
+        ReflectionTestUtils.setField(facetAggregate, "transactionManager", mock(PlatformTransactionManager.class));
+
+        ProductSummary before = summary(1, "Garden", "brand");
+        ProductSummary after = summary(1, "Kitchen", "brand");
+
+        // product 1 is moved to another category on another replica, while build reads its old row
+        when(productRepository.streamSummariesBy())
+                .thenReturn(Stream.of(before)
+                                  .peek(product -> changed(Set.of(1))));
+        when(productRepository.findSummariesByIdIn(Set.of(1))).thenReturn(List.of(after));
+
+        facetAggregate.afterSingletonsInstantiated();
+
+        assertThat(facetAggregate.categories(3))
+                .containsExactly(new ProductCategory("Kitchen", 1, Map.of("brand", 1L)));
+    }
+
+    private void changed(Set<Integer> productIds) {
+        ReflectionTestUtils.invokeMethod(facetAggregate, "onProductsChanged", new ProductsChangedEvent(productIds));
+    }
+
+    private static ProductSummary summary(int id, String category, String brand) {
+        return new ProductSummary(id, "title", null, brand, 4, category, "short description", 0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.service.ReviewClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FeignHttpClientTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReviewClient reviewClient;
+
+    @Test
+    public void callsReuseKeptAliveConnection() {
+        for (int i = 0; i < 5; i++)
+            assertThat(reviewClient.bulkReviews(List.of("21", "22"))).containsOnlyKeys("21", "22");
+
+        assertThat(stub.getBulkCalls()).isEqualTo(5);
+        assertThat(stub.getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    public void gzippedResponsesAreDecoded() {
+        Map<String, List<Review>> reviews = reviewClient.bulkReviews(List.of("23"));
+
+        assertThat(stub.getGzipped()).isEqualTo(1);
+        assertThat(reviews.get("23")).hasSize(2)
+                                     .extracting(Review::getProductId).containsOnly(23);
+    }
+
+    @Test
+    public void poolMetricsAreExposed() throws Exception {
+        reviewClient.bulkReviews(List.of("24"));
+
+        // feign.httpclient.max-connections
+        this.mockMvc.perform(get("/actuator/metrics/httpcomponents.httpclient.pool.total.max")
+                                     .param("tag", "httpclient:feign"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", is(100.0)));
+
+        this.mockMvc.perform(get("/actuator/metrics/httpcomponents.httpclient.pool.total.connections")
+                                     .param("tag", "state:available"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+
+        this.mockMvc.perform(get("/actuator/metrics/httpcomponents.httpclient.pool.lease"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+    }
+}
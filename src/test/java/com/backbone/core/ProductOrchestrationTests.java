@@ -0,0 +1,122 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.ProductOrchestrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {"product.orchestration.async=true",
+                                   "product.orchestration.timeout.reviews-ms=1000",
+                                   "product.orchestration.pool-size=2",
+                                   "product.orchestration.queue-size=3"})
+public class ProductOrchestrationTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductOrchestrator productOrchestrator;
+
+    @Test
+    public void productReturnsWithReviewsInBudget() throws Exception {
+        this.mockMvc.perform(get("/product/2"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().doesNotExist("X-Partial-Response"))
+                .andExpect(jsonPath("$.id", is(2)))
+                .andExpect(jsonPath("$.reviews", hasSize(2)));
+    }
+
+    @Test
+    public void productReturnsPartialWhenReviewsMissBudget() throws Exception {
+        stub.setLatencyMs(3000);
+
+        this.mockMvc.perform(get("/product/3"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string("X-Partial-Response", "reviews"))
+                .andExpect(jsonPath("$.id", is(3)))
+                .andExpect(jsonPath("$.reviews", is(empty())));
+    }
+
+    @Test
+    public void burstBeyondPoolRunsOnCallersWithoutNewThreads() {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(productOrchestrator, "executor");
+
+        List<CompletableFuture<ProductOrchestrator.EnrichedProduct>> burst = IntStream.rangeClosed(1, 20)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> product(String.valueOf(id))))
+                .collect(Collectors.toList());
+
+        burst.forEach(enriched -> assertThat(enriched.join().getProduct()).isNotNull());
+
+        assertThat(pool.getLargestPoolSize()).isLessThanOrEqualTo(2);
+        assertThat(pool.getQueue().remainingCapacity() + pool.getQueue().size()).isEqualTo(3);
+    }
+
+    @Test
+    public void productWithNotAvailableIDAndReturnsNotFound() throws Exception {
+        this.mockMvc.perform(get("/product/200"))
+                .andDo(print())
+                .andExpect(status().is(404));
+    }
+
+    @Test
+    public void productWithNotValidIDAndReturnsBadRequest() throws Exception {
+        this.mockMvc.perform(get("/product/1ax"))
+                .andDo(print())
+                .andExpect(status().is(400));
+    }
+
+    @Test
+    public void productReturnsServiceUnavailableWhenLookupMissesBudget() throws Exception {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(productOrchestrator, "executor");
+        CountDownLatch release = new CountDownLatch(1);
+
+        // lookup of product waits in queue, behind busy pool
+        IntStream.range(0, 2).forEach(i -> pool.execute(() -> await(release)));
+        ReflectionTestUtils.setField(productOrchestrator, "productTimeoutMs", 100L);
+
+        try {
+            this.mockMvc.perform(get("/product/4"))
+                    .andDo(print())
+                    .andExpect(status().is(503))
+                    .andExpect(content().string(blankOrNullString()));
+        } finally {
+            ReflectionTestUtils.setField(productOrchestrator, "productTimeoutMs", 1000L);
+            release.countDown();
+        }
+    }
+
+    private ProductOrchestrator.EnrichedProduct product(String id) {
+        try {
+            return productOrchestrator.getProduct(id);
+        } catch (TimeoutException te) {
+            throw new CompletionException(te);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
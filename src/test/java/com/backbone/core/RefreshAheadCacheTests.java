@@ -0,0 +1,140 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.RefreshAheadCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RefreshAheadCacheTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("product");
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ManualClock clock = new ManualClock();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() {
+        RefreshAheadCache refreshAheadCache = new RefreshAheadCache(cache, Duration.ofMinutes(2), 0.75, 3, executor);
+        CountDownLatch called = new CountDownLatch(10);
+
+        // load completes once every caller has called get, those after it hit cache
+        List<CompletableFuture<String>> callers = IntStream.range(0, 10)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    called.countDown();
+
+                    return refreshAheadCache.get("1", () -> {
+                        loads.incrementAndGet();
+                        await(called);
+
+                        return "product-1";
+                    });
+                }, executor))
+                .collect(Collectors.toList());
+
+        callers.forEach(caller -> assertThat(caller.join()).isEqualTo("product-1"));
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void missBeforeAnotherLoadFinishesUsesItsValue() {
+        // other caller's load puts value right after this caller's miss
+        ConcurrentMapCache racing = new ConcurrentMapCache("product") {
+            private final AtomicBoolean missed = new AtomicBoolean();
+
+            @Override
+            public ValueWrapper get(Object key) {
+                if (missed.compareAndSet(false, true)) {
+                    put(key, "product-1");
+
+                    return null;
+                }
+
+                return super.get(key);
+            }
+        };
+        RefreshAheadCache refreshAheadCache = new RefreshAheadCache(racing, Duration.ofMinutes(2), 0.75, 3, executor);
+
+        assertThat(refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet())).isEqualTo("product-1");
+        assertThat(loads.get()).isZero();
+    }
+
+    @Test
+    public void loaderExceptionIsThrownAndNotCached() {
+        RefreshAheadCache refreshAheadCache = new RefreshAheadCache(cache, Duration.ofMinutes(2), 0.75, 3, executor);
+
+        assertThatThrownBy(() -> refreshAheadCache.get("200", () -> {
+            throw new NullPointerException("No record");
+        })).isInstanceOf(NullPointerException.class);
+
+        assertThat(cache.get("200")).isNull();
+    }
+
+    @Test
+    public void hotEntryIsRefreshedAheadOfTtl() {
+        // refreshes run on caller, so they are done once get returns
+        RefreshAheadCache refreshAheadCache =
+                new RefreshAheadCache(cache, Duration.ofMillis(1000), 0.2, 2, Runnable::run, clock);
+
+        assertThat(refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+
+        clock.advance(Duration.ofMillis(300));
+
+        // hits after refresh-ahead point serve current value, and reload
+        assertThat(refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.get("1").get()).isEqualTo("v2");
+    }
+
+    @Test
+    public void coldEntryIsNotRefreshed() {
+        RefreshAheadCache refreshAheadCache =
+                new RefreshAheadCache(cache, Duration.ofMillis(1000), 0.2, 5, Runnable::run, clock);
+
+        refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet());
+
+        clock.advance(Duration.ofMillis(300));
+        refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet());
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void entryIsNotRefreshedBeforeRefreshAheadPoint() {
+        RefreshAheadCache refreshAheadCache =
+                new RefreshAheadCache(cache, Duration.ofMillis(1000), 0.2, 2, Runnable::run, clock);
+
+        refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet());
+
+        clock.advance(Duration.ofMillis(100));
+        refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet());
+        refreshAheadCache.get("1", () -> "v" + loads.incrementAndGet());
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.service.ReviewBatchLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "review-service.batch.window-ms=50")
+public class ReviewBatchLoaderTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ReviewBatchLoader reviewBatchLoader;
+
+    @Test
+    public void concurrentLookupsAreCoalescedIntoOneBulkCall() {
+        List<CompletableFuture<List<Review>>> futures = IntStream.rangeClosed(1, 20)
+                .mapToObj(id -> CompletableFuture.supplyAsync(() -> reviewBatchLoader.load(String.valueOf(id)))
+                                                 .thenCompose(future -> future))
+                .collect(Collectors.toList());
+
+        for (int id = 1; id <= 20; id++) {
+            List<Review> reviews = futures.get(id - 1).join();
+
+            assertThat(reviews).hasSize(2);
+            assertThat(reviews.get(0).getProductId()).isEqualTo(id);
+        }
+
+        assertThat(stub.getBulkCalls()).isLessThan(20);
+    }
+
+    @Test
+    public void productReturnsReviewsFromReviewService() throws Exception {
+        this.mockMvc.perform(get("/product/1"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.reviews", hasSize(2)))
+                .andExpect(jsonPath("$.reviews[0].productId", is(1)));
+    }
+}
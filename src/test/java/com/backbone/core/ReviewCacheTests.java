@@ -0,0 +1,118 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.Review;
+import com.backbone.core.demo.service.CachedReviews;
+import com.backbone.core.demo.service.ReviewBatchLoader;
+import com.backbone.core.demo.service.ReviewCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReviewCacheTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private ReviewBatchLoader reviewBatchLoader;
+
+    @Autowired
+    private ReviewCache reviewCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final ManualClock clock = new ManualClock();
+
+    private Cache cache;
+    private Clock systemClock;
+
+    @BeforeEach
+    void reset() {
+        cache = cacheManager.getCache("reviews");
+
+        systemClock = (Clock) ReflectionTestUtils.getField(reviewCache, "clock");
+        ReflectionTestUtils.setField(reviewCache, "clock", clock);
+    }
+
+    @AfterEach
+    void restoreClock() {
+        ReflectionTestUtils.setField(reviewCache, "clock", systemClock);
+    }
+
+    @Test
+    public void freshReviewsAreServedWithoutCall() {
+        assertThat(reviewBatchLoader.load("11").join()).hasSize(2);
+        assertThat(reviewBatchLoader.load("11").join()).hasSize(2);
+
+        assertThat(stub.getBulkCalls()).isEqualTo(1);
+        assertThat(reviewCache.freshness(reviewCache.get("11"))).isEqualTo(ReviewCache.Freshness.FRESH);
+    }
+
+    @Test
+    public void productWithoutReviewsIsCachedToo() {
+        stub.setReviewCount(0);
+
+        assertThat(reviewBatchLoader.load("12").join()).isEmpty();
+        assertThat(reviewBatchLoader.load("12").join()).isEmpty();
+
+        assertThat(stub.getBulkCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void productWithoutReviewsExpiresSooner() {
+        CachedReviews none = new CachedReviews(List.of(), clock.millis());
+        CachedReviews some = new CachedReviews(List.of(new Review()), clock.millis());
+
+        clock.advance(Duration.ofSeconds(45));
+
+        assertThat(reviewCache.freshness(none)).isEqualTo(ReviewCache.Freshness.STALE);
+        assertThat(reviewCache.freshness(some)).isEqualTo(ReviewCache.Freshness.FRESH);
+    }
+
+    @Test
+    public void staleReviewsAreServedAndReloadedInBackground() {
+        stub.setLatencyMs(300);
+        cache.put("13", new CachedReviews(List.of(), clock.millis()));
+        clock.advance(Duration.ofSeconds(61));
+
+        long start = System.currentTimeMillis();
+
+        // stale ones at once, w/o waiting for review-service
+        assertThat(reviewBatchLoader.load("13").join()).isEmpty();
+        assertThat(reviewBatchLoader.load("13").join()).isEmpty();
+        assertThat(System.currentTimeMillis() - start).isLessThan(250);
+
+        // one reload, for both lookups
+        awaitReload("13");
+        assertThat(stub.getBulkCalls()).isEqualTo(1);
+        assertThat(reviewCache.freshness(reviewCache.get("13"))).isEqualTo(ReviewCache.Freshness.FRESH);
+        assertThat(reviewBatchLoader.load("13").join()).hasSize(2);
+        assertThat(stub.getBulkCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredReviewsAreLoadedAgain() {
+        cache.put("14", new CachedReviews(List.of(), clock.millis()));
+        clock.advance(Duration.ofHours(1));
+
+        assertThat(reviewBatchLoader.load("14").join()).hasSize(2);
+        assertThat(stub.getBulkCalls()).isEqualTo(1);
+    }
+
+    // background reload replaces entry, clock does not move meanwhile
+    private void awaitReload(String productId) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (reviewCache.get(productId).getReviews().isEmpty() && System.nanoTime() < deadline)
+            Thread.onSpinWait();
+    }
+}
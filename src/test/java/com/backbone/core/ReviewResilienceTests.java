@@ -0,0 +1,112 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.service.ReviewClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@TestPropertySource(properties = {"feign.client.config.review-service.read-timeout=300",
+                                   "resilience4j.circuitbreaker.instances.review-service.sliding-window-size=4",
+                                   "resilience4j.circuitbreaker.instances.review-service.minimum-number-of-calls=4",
+                                   "resilience4j.circuitbreaker.instances.review-service.wait-duration-in-open-state=60s"})
+public class ReviewResilienceTests extends ReviewServiceStubTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReviewClient reviewClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @BeforeEach
+    void reset() {
+        circuitBreakerRegistry.circuitBreaker(ReviewClient.REVIEW_SERVICE).reset();
+    }
+
+    @Test
+    public void failedReviewServiceFallsBackToLastKnownReviews() throws Exception {
+        this.mockMvc.perform(get("/product/5"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.reviews", hasSize(2)));
+
+        stub.setFailureRate(1);
+
+        this.mockMvc.perform(get("/product/5"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().doesNotExist("X-Partial-Response"))
+                .andExpect(jsonPath("$.reviews", hasSize(2)))
+                .andExpect(jsonPath("$.reviews[0].productId", is(5)));
+    }
+
+    @Test
+    public void failedReviewServiceWithoutLastKnownReviewsIsPartial() throws Exception {
+        stub.setFailureRate(1);
+
+        this.mockMvc.perform(get("/product/6"))
+                .andDo(print())
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string("X-Partial-Response", "reviews"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.id", is(6)))
+                .andExpect(jsonPath("$.reviews").doesNotExist());
+    }
+
+    @Test
+    public void slowReviewServiceTimesOut() throws Exception {
+        stub.setLatencyMs(3000);
+
+        long start = System.currentTimeMillis();
+
+        this.mockMvc.perform(get("/product/7"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(header().string("X-Partial-Response", "reviews"));
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+    }
+
+    @Test
+    public void circuitOpensAfterFailuresAndCallsStop() throws Exception {
+        stub.setFailureRate(1);
+
+        for (int i = 0; i < 4; i++)
+            reviewClient.bulkReviews(List.of("8"));
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(ReviewClient.REVIEW_SERVICE);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int calls = stub.getBulkCalls();
+
+        assertThat(reviewClient.bulkReviews(List.of("8"))).isEmpty();
+        assertThat(stub.getBulkCalls()).isEqualTo(calls);
+
+        this.mockMvc.perform(get("/actuator/metrics/resilience4j.circuitbreaker.state").param("tag", "state:open"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", is(1.0)));
+
+        this.mockMvc.perform(get("/actuator/metrics/resilience4j.circuitbreaker.calls").param("tag", "kind:failed"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(4.0)));
+
+        this.mockMvc.perform(get("/actuator/metrics/reviews.fallback").param("tag", "result:miss"))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(5.0)));
+
+        this.mockMvc.perform(get("/actuator/metrics/resilience4j.bulkhead.available.concurrent.calls"))
+                .andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,165 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.Review;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for review-service. Every product gets reviewCount reviews (2 by default), after latencyMs.
+ * A failureRate of calls (0..1) get 503 instead, after the same latency.
+ * Responses are gzipped if client accepts it. Client connections are counted by remote address.
+ *
+ * - GET /reviews/products?ids=1&ids=2
+ */
+public class ReviewServiceStub {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+    private final AtomicInteger gzipped = new AtomicInteger();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile long latencyMs;
+    private volatile double failureRate;
+    private volatile int reviewCount = 2;
+
+    public ReviewServiceStub() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        server.createContext("/reviews/products", this::bulk);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int getBulkCalls() {
+        return bulkCalls.get();
+    }
+
+    public int getGzipped() {
+        return gzipped.get();
+    }
+
+    public int getConnections() {
+        return connections.size();
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public void reset() {
+        bulkCalls.set(0);
+        gzipped.set(0);
+        connections.clear();
+        latencyMs = 0;
+        failureRate = 0;
+        reviewCount = 2;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void bulk(HttpExchange exchange) throws IOException {
+        bulkCalls.incrementAndGet();
+
+        List<Review> reviews = new ArrayList<>();
+        String query = exchange.getRequestURI().getQuery();
+
+        for (String param : query.split("&"))
+            for (String id : param.substring(param.indexOf('=') + 1).split(","))
+                reviews.addAll(reviews(Integer.parseInt(id)));
+
+        respond(exchange, reviews);
+    }
+
+    private List<Review> reviews(int productId) {
+        List<Review> reviews = new ArrayList<>();
+
+        for (int i = 1; i <= reviewCount; i++) {
+            Review review = new Review();
+            review.setId(productId * 10 + i);
+            review.setProductId(productId);
+            review.setTitle("review " + i);
+            review.setRating(i + 3);
+            reviews.add(review);
+        }
+
+        return reviews;
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        connections.add(exchange.getRemoteAddress());
+
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+
+            return;
+        }
+
+        byte[] bytes = mapper.writeValueAsBytes(body);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            gzipped.incrementAndGet();
+
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(bytes);
+            }
+
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.backbone.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base of tests against a ReviewServiceStub, instead of review-service.
+ *
+ * The stub is started once, and shared by all of them, so tests w/o their own properties share one cached
+ * context. Others add theirs w/ @TestPropertySource, and get a context per distinct set. Each context has
+ * its own in-memory db (schema.sql creates tables on start), the stub is reset before each test.
+ *
+ * Contexts share one jcache CacheManager (same config uri), and keys of their product caches come from
+ * their own ProductCacheKeys generations, so they would read each other's entries. All caches are cleared
+ * before each test.
+ */
+@SpringBootTest(properties = ReviewServiceStubTests.DATASOURCE)
+@AutoConfigureMockMvc
+public abstract class ReviewServiceStubTests {
+
+    // resolved per context
+    static final String DATASOURCE = "spring.datasource.url=jdbc:h2:mem:${random.uuid}";
+
+    // cached contexts outlive test classes, so it is stopped w/ jvm
+    static final ReviewServiceStub stub = new ReviewServiceStub();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::stop));
+    }
+
+    @DynamicPropertySource
+    static void reviewService(DynamicPropertyRegistry registry) {
+        registry.add("review-service.url", stub::getUrl);
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void resetReviewService() {
+        stub.reset();
+
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
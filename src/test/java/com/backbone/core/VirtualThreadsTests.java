@@ -0,0 +1,95 @@
+package com.backbone.core;
+
+import com.backbone.core.demo.config.VirtualThreads;
+import com.backbone.core.demo.service.ProductOrchestrator;
+import com.backbone.core.demo.service.ReviewBatchLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// on JDKs before 21, virtual threads fall back to platform ones. requests stay on tomcat's threads either way
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {ReviewServiceStubTests.DATASOURCE, "spring.threads.virtual.enabled=true"})
+public class VirtualThreadsTests extends ReviewServiceStubTests {
+
+    private static final boolean SUPPORTED = Runtime.version().feature() >= 21;
+
+    @Autowired
+    private VirtualThreads virtualThreads;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private ReviewBatchLoader reviewBatchLoader;
+
+    @Autowired
+    private ProductOrchestrator productOrchestrator;
+
+    @Test
+    public void executorRunsOnVirtualThreadsIfSupported() throws Exception {
+        assertThat(virtualThreads.isEnabled()).isEqualTo(SUPPORTED);
+
+        ExecutorService executor = virtualThreads.executor("test-vt-", Executors::newSingleThreadExecutor);
+
+        try {
+            String thread = executor.submit(() -> Thread.currentThread().getName()).get();
+
+            if (SUPPORTED)
+                assertThat(thread).startsWith("test-vt-");
+            else
+                assertThat(thread).doesNotStartWith("test-vt-");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void blockingCallsRunInModeOfThisJdk() throws Exception {
+        assertThat(threadOf(reviewBatchLoader, "caller").startsWith("review-batch-vt-")).isEqualTo(SUPPORTED);
+        assertThat(threadOf(productOrchestrator, "executor").startsWith("product-orchestration-vt-"))
+                .isEqualTo(SUPPORTED);
+    }
+
+    @Test
+    public void requestsStayOnTomcatThreads() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+        assertThat(webServer.getTomcat().getConnector().getProtocolHandler().getExecutor())
+                .isInstanceOf(org.apache.tomcat.util.threads.ThreadPoolExecutor.class);
+    }
+
+    @Test
+    public void productIsServedInEitherMode() {
+        ResponseEntity<Map<String, Object>> response =
+                restTemplate.exchange("/product/1", HttpMethod.GET, null,
+                                      new ParameterizedTypeReference<Map<String, Object>>() { });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("id", 1);
+        assertThat((Iterable<?>) response.getBody().get("reviews")).hasSize(2);
+    }
+
+    private static String threadOf(Object bean, String executorField) throws Exception {
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(bean, executorField);
+
+        return executor.submit(() -> Thread.currentThread().getName()).get();
+    }
+}